@@ -0,0 +1,95 @@
+package com.example.recipes;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.recipes.util.RecipeImporter;
+import com.example.recipes.util.RecipeImporter.ImportResult;
+import com.example.recipes.util.RecipesImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * The application against an embedded MariaDB (MariaDB4j), seeded with {@link SyntheticRecipes}
+ * through the real importer, so the schema, indexes, title index and in-memory engine are the
+ * ones production runs.
+ */
+public final class EmbeddedRecipes implements AutoCloseable {
+
+	private final DB db;
+	private final ConfigurableApplicationContext context;
+
+	private EmbeddedRecipes(DB db, ConfigurableApplicationContext context) {
+		this.db = db;
+		this.context = context;
+	}
+
+	/** Starts the database and the application with {@code args} on top of the defaults, then seeds {@code recipes} recipes. */
+	public static EmbeddedRecipes start(WebApplicationType web, int recipes, long seed, String... args) throws Exception {
+		DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+		config.setPort(0);
+		if ("root".equals(System.getProperty("user.name"))) {
+			// mariadbd refuses to start as root unless told to, e.g. in CI containers
+			config.addArg("--user=root");
+		}
+		DB db = DB.newEmbeddedDB(config.build());
+		db.start();
+		ConfigurableApplicationContext context = null;
+		try {
+			db.createDB("recipes_bench");
+
+			// Arguments, not default properties, so they win over application.properties
+			List<String> arguments = new ArrayList<>(List.of(
+					"--spring.datasource.url=jdbc:mysql://127.0.0.1:" + db.getConfiguration().getPort()
+							+ "/recipes_bench?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true",
+					"--spring.datasource.username=root",
+					"--spring.datasource.password=",
+					"--recipes.import-on-start=false",
+					"--logging.level.root=WARN"));
+			arguments.addAll(List.of(args));
+			context = new SpringApplicationBuilder(RecipesApplication.class)
+					.web(web)
+					.run(arguments.toArray(String[]::new));
+
+			byte[] feed = new ObjectMapper().writeValueAsBytes(SyntheticRecipes.raw(recipes, seed));
+			ImportResult seeded = context.getBean(RecipeImporter.class).importFrom(new ByteArrayInputStream(feed));
+			if (seeded.inserted != recipes) {
+				throw new IllegalStateException("Seeded " + seeded.inserted + " of " + recipes + " recipes (" + seeded.skipped + " skipped)");
+			}
+			// Same event the startup import publishes: rebuilds the title index and the memory snapshot
+			context.publishEvent(new RecipesImportedEvent((int) seeded.inserted));
+			return new EmbeddedRecipes(db, context);
+		} catch (Exception | Error e) {
+			if (context != null) {
+				context.close();
+			}
+			db.stop();
+			throw e;
+		}
+	}
+
+	public ConfigurableApplicationContext context() {
+		return context;
+	}
+
+	/** The HTTP port of a web application started with {@code --server.port=0}. */
+	public int port() {
+		return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+	}
+
+	@Override
+	public void close() throws Exception {
+		try {
+			context.close();
+		} finally {
+			db.stop();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.recipes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.repo.RecipeSearchRepository.CountMode;
+import com.example.recipes.repo.RecipeSearchRepository.PagedResult;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+
+/**
+ * Uncached searches through {@link RecipeSearchRepository} against an {@link EmbeddedRecipes}
+ * database seeded with synthetic recipes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchEndToEndBenchmark {
+
+	@Param({ "50000" })
+	public int recipes;
+
+	@Param({ "sql", "memory" })
+	public String engine;
+
+	@Param({ "unfiltered", "title", "cuisine+rating", "all", "deep-page" })
+	public String scenario;
+
+	@Param({ "EXACT", "NONE" })
+	public CountMode count;
+
+	private EmbeddedRecipes app;
+	private RecipeSearchRepository repository;
+	private SearchParams params;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		app = EmbeddedRecipes.start(WebApplicationType.NONE, recipes, 42, "--recipes.search.engine=" + engine);
+		repository = app.context().getBean(RecipeSearchRepository.class);
+
+		params = new SearchParams();
+		params.count = count;
+		params.summary = true;
+		switch (scenario) {
+			case "title" -> params.title = "potato pie";
+			case "cuisine+rating" -> {
+				params.cuisine = "italian";
+				params.ratingExpr = ">=4.5";
+			}
+			case "all" -> {
+				params.title = "pie";
+				params.cuisine = "southern recipes";
+				params.ratingExpr = ">=3";
+				params.totalTimeExpr = "<=120";
+				params.caloriesExpr = "<=600";
+			}
+			case "deep-page" -> params.page = 400;
+			default -> {
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (app != null) {
+			app.close();
+		}
+	}
+
+	@Benchmark
+	public PagedResult search() {
+		return repository.search(params);
+	}
+}
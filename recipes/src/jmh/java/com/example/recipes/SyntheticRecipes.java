@@ -0,0 +1,127 @@
+package com.example.recipes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.search.IngredientTokens;
+
+/**
+ * Deterministic recipe generator for the benchmarks, shaped like the import feed:
+ * a skewed cuisine mix, roughly one in ten ratings and times missing, and nutrients
+ * given as strings such as {@code "389 kcal"}.
+ */
+public final class SyntheticRecipes {
+
+	private static final String[] CUISINES = { "Southern Recipes", "Italian", "Mexican", "Chinese", "Indian",
+			"French", "Thai", "Greek", "Japanese", "Spanish", "Cajun and Creole", "Tex-Mex" };
+	private static final String[] ADJECTIVES = { "Sweet", "Spicy", "Easy", "Classic", "Creamy", "Smoky", "Crispy",
+			"Slow Cooker", "Grilled", "Baked", "Quick", "Homemade" };
+	private static final String[] DISHES = { "Potato Pie", "Chicken Curry", "Beef Tacos", "Pasta", "Gumbo",
+			"Fried Rice", "Pecan Pie", "Lasagna", "Pad Thai", "Chili", "Salad", "Soup", "Casserole", "Cornbread" };
+	private static final String[] INGREDIENTS = { "1 cup flour", "2 eggs", "1 tablespoon butter", "1 onion, diced",
+			"2 cloves garlic", "1 teaspoon salt", "1 pound chicken", "2 cups rice", "1 can tomatoes", "1 cup milk" };
+
+	private SyntheticRecipes() {
+	}
+
+	/** Every cuisine the generator assigns. */
+	public static List<String> cuisines() {
+		return List.of(CUISINES);
+	}
+
+	/** Every dish name titles end in. */
+	public static List<String> dishes() {
+		return List.of(DISHES);
+	}
+
+	/** Raw feed records, as {@code RecipeImporter} receives them. */
+	public static List<Map<String, Object>> raw(int count, long seed) {
+		Random random = new Random(seed);
+		List<Map<String, Object>> records = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			records.add(raw(random, i));
+		}
+		return records;
+	}
+
+	/** Mapped entities with ids {@code 1..count}. */
+	public static List<Recipe> recipes(int count, long seed) {
+		Random random = new Random(seed);
+		List<Recipe> recipes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> raw = raw(random, i);
+			@SuppressWarnings("unchecked")
+			Map<String, Object> nutrients = (Map<String, Object>) raw.get("nutrients");
+			recipes.add(Recipe.builder()
+					.id(i + 1L)
+					.title((String) raw.get("title"))
+					.cuisine((String) raw.get("cuisine"))
+					.rating((Double) raw.get("rating"))
+					.prep_time((Integer) raw.get("prep_time"))
+					.cook_time((Integer) raw.get("cook_time"))
+					.total_time((Integer) raw.get("total_time"))
+					.description((String) raw.get("description"))
+					.url((String) raw.get("URL"))
+					.ingredients(raw.get("ingredients").toString())
+					.ingredientTokens(IngredientTokens.of((List<?>) raw.get("ingredients")))
+					.instructions(raw.get("instructions").toString())
+					.nutrients(json(nutrients))
+					.serves((String) raw.get("serves"))
+					.caloriesNum((int) amount(nutrients, "calories"))
+					.proteinG(amount(nutrients, "proteinContent"))
+					.fatG(amount(nutrients, "fatContent"))
+					.carbohydratesG(amount(nutrients, "carbohydrateContent"))
+					.sodiumMg((int) amount(nutrients, "sodiumContent"))
+					.build());
+		}
+		return recipes;
+	}
+
+	/** The leading number of a nutrient value such as {@code "12 g"}, as the generated columns read it. */
+	private static double amount(Map<String, Object> nutrients, String key) {
+		String value = (String) nutrients.get(key);
+		return Double.parseDouble(value.substring(0, value.indexOf(' ')));
+	}
+
+	/** The nutrients as stored JSON text; keys and values never need escaping here. */
+	private static String json(Map<String, Object> nutrients) {
+		StringBuilder json = new StringBuilder("{");
+		nutrients.forEach((k, v) -> json.append(json.length() > 1 ? ", " : "").append('"').append(k).append("\": \"").append(v).append('"'));
+		return json.append('}').toString();
+	}
+
+	private static Map<String, Object> raw(Random random, int i) {
+		Map<String, Object> raw = new LinkedHashMap<>();
+		String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + DISHES[random.nextInt(DISHES.length)] + " " + i;
+		raw.put("title", title);
+		// Squaring skews the mix towards the first cuisines, like the real feed
+		raw.put("cuisine", CUISINES[(int) (Math.pow(random.nextDouble(), 2) * CUISINES.length)]);
+		raw.put("description", "A " + title.toLowerCase() + " that comes together on a weeknight.");
+		raw.put("URL", "https://recipes.example.com/recipe/" + i);
+		raw.put("rating", random.nextInt(10) == 0 ? null : Math.round((1 + random.nextDouble() * 4) * 10) / 10.0);
+		int prep = 5 + random.nextInt(40);
+		int cook = random.nextInt(180);
+		raw.put("prep_time", prep);
+		raw.put("cook_time", cook);
+		raw.put("total_time", random.nextInt(10) == 0 ? null : prep + cook);
+		List<String> ingredients = new ArrayList<>();
+		for (int n = 3 + random.nextInt(8); n > 0; n--) {
+			ingredients.add(INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+		}
+		raw.put("ingredients", ingredients);
+		raw.put("instructions", List.of("Prepare the ingredients.", "Cook until done.", "Serve warm."));
+		Map<String, Object> nutrients = new LinkedHashMap<>();
+		nutrients.put("calories", (100 + random.nextInt(900)) + " kcal");
+		nutrients.put("carbohydrateContent", random.nextInt(120) + " g");
+		nutrients.put("proteinContent", random.nextInt(60) + " g");
+		nutrients.put("fatContent", random.nextInt(50) + " g");
+		nutrients.put("sodiumContent", random.nextInt(2000) + " mg");
+		raw.put("nutrients", nutrients);
+		raw.put("serves", (1 + random.nextInt(8)) + " servings");
+		return raw;
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.recipes.dto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.recipes.SyntheticRecipes;
+import com.example.recipes.entity.Recipe;
+
+/** Entity to response mapping for one full page and for its summary projection. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeDtoBenchmark {
+
+	private List<Recipe> page;
+
+	@Setup
+	public void setUp() {
+		page = SyntheticRecipes.recipes(10, 11);
+	}
+
+	@Benchmark
+	public List<RecipeDto> fullPage() {
+		return page.stream().map(RecipeDto::from).toList();
+	}
+
+	@Benchmark
+	public List<RecipeSummaryDto> summaryPage() {
+		return page.stream().map(RecipeSummaryDto::from).toList();
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.recipes.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every latency of one endpoint, kept in full so that percentiles are exact rather than
+ * bucketed: a run of a few hundred thousand requests needs a few megabytes.
+ */
+final class LatencyRecorder {
+
+	private long[] nanos = new long[1024];
+	private int count;
+	private long errors;
+
+	synchronized void record(long latencyNanos, boolean ok) {
+		if (count == nanos.length) {
+			nanos = Arrays.copyOf(nanos, count * 2);
+		}
+		nanos[count++] = latencyNanos;
+		if (!ok) {
+			errors++;
+		}
+	}
+
+	/**
+	 * Requests, errors, throughput over {@code seconds}, and latency in milliseconds: mean,
+	 * p50, p95, p99, p999 (nearest rank) and max.
+	 */
+	synchronized Map<String, Object> summary(double seconds) {
+		long[] sorted = Arrays.copyOf(nanos, count);
+		Arrays.sort(sorted);
+		Map<String, Object> latency = new LinkedHashMap<>();
+		latency.put("mean", count > 0 ? millis(Arrays.stream(sorted).average().orElse(0)) : null);
+		latency.put("p50", percentile(sorted, 0.50));
+		latency.put("p95", percentile(sorted, 0.95));
+		latency.put("p99", percentile(sorted, 0.99));
+		latency.put("p999", percentile(sorted, 0.999));
+		latency.put("max", count > 0 ? millis(sorted[count - 1]) : null);
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("requests", count);
+		summary.put("errors", errors);
+		summary.put("throughput", Math.round(count / seconds * 100) / 100.0);
+		summary.put("latencyMs", latency);
+		return summary;
+	}
+
+	private static Double percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return null;
+		}
+		int rank = (int) Math.ceil(p * sorted.length);
+		return millis(sorted[Math.max(0, rank - 1)]);
+	}
+
+	private static double millis(double nanos) {
+		return Math.round(nanos / 1_000) / 1_000.0;
+	}
+}
@@ -0,0 +1,305 @@
+package com.example.recipes.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.convert.DurationStyle;
+
+import com.example.recipes.EmbeddedRecipes;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Open-model load test of the HTTP API. Sessions of a {@link Workload} arrive as a Poisson
+ * process at {@code rate} per second, independent of how fast the server answers, and each
+ * request is timed from when it was due rather than from when it could be sent, so a stalled
+ * server shows up in the tail instead of slowing the arrivals down.
+ * <p>
+ * By default the application is started against an {@link EmbeddedRecipes} database seeded with
+ * {@code recipes} synthetic recipes; {@code url=} points the test at a running instance instead.
+ * Requests due during {@code warmup} are sent but not reported. Throughput and p50/p95/p99/p999
+ * latency per endpoint are printed and written as JSON to {@code out}; with {@code baseline=}
+ * the run is compared against an earlier result file.
+ * <p>
+ * Arguments are {@code key=value} pairs, see {@link Options}.
+ */
+public final class LoadTest {
+
+	static final class Options {
+		int recipes = 20_000;
+		long seed = 42;
+		String engine = "sql";
+		/** Session arrivals per second; a typeahead session sends several requests. */
+		double rate = 100;
+		Duration warmup = Duration.ofSeconds(15);
+		Duration duration = Duration.ofSeconds(60);
+		String mix = Workload.DEFAULT_MIX;
+		/** Time between keystrokes of a typeahead session. */
+		Duration keystroke = Duration.ofMillis(150);
+		Duration timeout = Duration.ofSeconds(10);
+		/** Requests past this many outstanding are dropped and counted, not queued. */
+		int maxInFlight = 2_000;
+		String url = "";
+		String out = "target/load-result.json";
+		String baseline = "";
+		/** Free text to tell runs apart, e.g. a commit id. */
+		String label = "";
+
+		static Options parse(String[] args) {
+			Options o = new Options();
+			for (String arg : args) {
+				String[] kv = arg.split("=", 2);
+				if (kv.length != 2) {
+					throw new IllegalArgumentException("Expected key=value, got: " + arg);
+				}
+				String v = kv[1];
+				switch (kv[0]) {
+					case "recipes" -> o.recipes = Integer.parseInt(v);
+					case "seed" -> o.seed = Long.parseLong(v);
+					case "engine" -> o.engine = v;
+					case "rate" -> o.rate = Double.parseDouble(v);
+					case "warmup" -> o.warmup = DurationStyle.detectAndParse(v);
+					case "duration" -> o.duration = DurationStyle.detectAndParse(v);
+					case "mix" -> o.mix = v;
+					case "keystroke" -> o.keystroke = DurationStyle.detectAndParse(v);
+					case "timeout" -> o.timeout = DurationStyle.detectAndParse(v);
+					case "max-in-flight" -> o.maxInFlight = Integer.parseInt(v);
+					case "url" -> o.url = v;
+					case "out" -> o.out = v;
+					case "baseline" -> o.baseline = v;
+					case "label" -> o.label = v;
+					default -> throw new IllegalArgumentException("Unknown option: " + kv[0]);
+				}
+			}
+			if (o.rate <= 0 || o.duration.isZero() || o.duration.isNegative()) {
+				throw new IllegalArgumentException("rate and duration must be positive");
+			}
+			return o;
+		}
+
+		/** Everything that decides what is sent; only runs with equal settings are comparable. */
+		Map<String, Object> settings(Workload workload) {
+			Map<String, Object> settings = new LinkedHashMap<>();
+			settings.put("target", url.isEmpty() ? "embedded" : url);
+			settings.put("recipes", recipes);
+			settings.put("engine", url.isEmpty() ? engine : null);
+			settings.put("seed", seed);
+			settings.put("rate", rate);
+			settings.put("warmup", warmup.toString());
+			settings.put("duration", duration.toString());
+			settings.put("mix", workload.mix());
+			settings.put("keystroke", keystroke.toString());
+			settings.put("timeout", timeout.toString());
+			settings.put("maxInFlight", maxInFlight);
+			return settings;
+		}
+	}
+
+	private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private final Options options;
+	private final Map<Workload.Endpoint, LatencyRecorder> recorders = new EnumMap<>(Workload.Endpoint.class);
+	private final LatencyRecorder all = new LatencyRecorder();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong dropped = new AtomicLong();
+
+	private LoadTest(Options options) {
+		this.options = options;
+		for (Workload.Endpoint endpoint : Workload.Endpoint.values()) {
+			recorders.put(endpoint, new LatencyRecorder());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = Options.parse(args);
+		if (options.url.isEmpty()) {
+			System.out.printf("Seeding %,d synthetic recipes into an embedded database...%n", options.recipes);
+			try (EmbeddedRecipes app = EmbeddedRecipes.start(WebApplicationType.SERVLET, options.recipes, options.seed,
+					"--server.port=0", "--recipes.search.engine=" + options.engine)) {
+				new LoadTest(options).run("http://127.0.0.1:" + app.port());
+			}
+		} else {
+			options.url = options.url.replaceAll("/+$", "");
+			options.recipes = countRecipes(options.url);
+			new LoadTest(options).run(options.url);
+		}
+	}
+
+	/** The catalogue size of a running instance, which bounds the ids the workload asks for. */
+	private static int countRecipes(String base) throws IOException, InterruptedException {
+		try (HttpClient client = HttpClient.newHttpClient()) {
+			HttpResponse<String> stats = client.send(HttpRequest.newBuilder(URI.create(base + "/api/recipes/stats")).build(),
+					HttpResponse.BodyHandlers.ofString());
+			return JSON.readTree(stats.body()).path("totalRecipes").asInt();
+		}
+	}
+
+	private void run(String base) throws Exception {
+		Workload workload = new Workload(Workload.parseMix(options.mix), Math.max(1, options.recipes), options.keystroke.toNanos());
+		// Separate streams, so that changing the mix does not shift the arrival times
+		Random sessions = new Random(options.seed);
+		Random arrivals = new Random(options.seed + 1);
+
+		System.out.printf("Sending %s sessions/s for %s after %s of warmup to %s (mix %s)%n",
+				options.rate, options.duration, options.warmup, base, workload.mix());
+		ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+		try (HttpClient client = HttpClient.newBuilder()
+				.connectTimeout(options.timeout)
+				.build()) {
+			long start = System.nanoTime();
+			long measureFrom = start + options.warmup.toNanos();
+			long end = measureFrom + options.duration.toNanos();
+			long next = start;
+			while (next < end) {
+				parkUntil(next);
+				for (Workload.Request request : workload.next(sessions)) {
+					long due = next + request.offsetNanos;
+					if (inFlight.incrementAndGet() > options.maxInFlight) {
+						inFlight.decrementAndGet();
+						if (due >= measureFrom && due < end) {
+							dropped.incrementAndGet();
+						}
+						continue;
+					}
+					senders.execute(() -> {
+						try {
+							send(client, base, request, due, due >= measureFrom && due < end);
+						} finally {
+							inFlight.decrementAndGet();
+						}
+					});
+				}
+				next += (long) (-Math.log(1 - arrivals.nextDouble()) / options.rate * 1e9);
+			}
+			senders.shutdown();
+			// Typeahead sessions may still have requests due; all of them time out eventually
+			senders.awaitTermination(options.timeout.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+		}
+		report(workload);
+	}
+
+	private void send(HttpClient client, String base, Workload.Request request, long due, boolean measured) {
+		parkUntil(due);
+		HttpRequest http = HttpRequest.newBuilder(URI.create(base + request.path))
+				.timeout(options.timeout)
+				.header("Accept", "application/json")
+				.header("Accept-Encoding", "gzip")
+				.GET()
+				.build();
+		boolean ok;
+		try {
+			HttpResponse<Void> response = client.send(http, HttpResponse.BodyHandlers.discarding());
+			ok = response.statusCode() / 100 == 2;
+		} catch (IOException e) {
+			ok = false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (measured) {
+			long latency = System.nanoTime() - due;
+			recorders.get(request.endpoint).record(latency, ok);
+			all.record(latency, ok);
+		}
+	}
+
+	private static void parkUntil(long nanoTime) {
+		long wait;
+		while ((wait = nanoTime - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(wait);
+		}
+	}
+
+	private void report(Workload workload) throws IOException {
+		double seconds = options.duration.toNanos() / 1e9;
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		recorders.forEach((endpoint, recorder) -> {
+			Map<String, Object> summary = recorder.summary(seconds);
+			if (((Number) summary.get("requests")).longValue() > 0) {
+				summary.put("route", endpoint.route);
+				endpoints.put(endpoint.key(), summary);
+			}
+		});
+		endpoints.put("all", all.summary(seconds));
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("label", options.label);
+		result.put("timestamp", Instant.now().toString());
+		result.put("java", System.getProperty("java.version"));
+		result.put("processors", Runtime.getRuntime().availableProcessors());
+		result.put("settings", options.settings(workload));
+		result.put("dropped", dropped.get());
+		result.put("endpoints", endpoints);
+
+		Path out = Path.of(options.out);
+		if (out.getParent() != null) {
+			Files.createDirectories(out.getParent());
+		}
+		JSON.writeValue(out.toFile(), result);
+
+		System.out.printf("%n%-8s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+				"endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+		JsonNode written = JSON.valueToTree(result);
+		written.path("endpoints").fields().forEachRemaining(e -> {
+			JsonNode s = e.getValue();
+			JsonNode l = s.path("latencyMs");
+			System.out.printf("%-8s %9d %7d %9.1f %9s %9s %9s %9s %9s%n", e.getKey(), s.path("requests").asLong(),
+					s.path("errors").asLong(), s.path("throughput").asDouble(), l.path("p50").asText(), l.path("p95").asText(),
+					l.path("p99").asText(), l.path("p999").asText(), l.path("max").asText());
+		});
+		if (dropped.get() > 0) {
+			System.out.printf("%d requests dropped at %d in flight%n", dropped.get(), options.maxInFlight);
+		}
+		System.out.println("Results written to " + out.toAbsolutePath());
+
+		if (!options.baseline.isEmpty()) {
+			compare(JSON.readTree(Path.of(options.baseline).toFile()), written);
+		}
+	}
+
+	/** Relative change of throughput, p50 and p99 per endpoint against an earlier result file. */
+	private static void compare(JsonNode baseline, JsonNode current) {
+		if (!baseline.path("settings").equals(current.path("settings"))) {
+			System.out.println("Warning: the baseline ran with different settings, so the numbers are not comparable");
+		}
+		System.out.printf("%nAgainst %s (%s):%n%-8s %9s %9s %9s%n", baseline.path("label").asText(),
+				baseline.path("timestamp").asText(), "endpoint", "req/s", "p50", "p99");
+		current.path("endpoints").fields().forEachRemaining(e -> {
+			JsonNode before = baseline.path("endpoints").path(e.getKey());
+			if (before.isMissingNode()) {
+				return;
+			}
+			JsonNode now = e.getValue();
+			System.out.printf("%-8s %9s %9s %9s%n", e.getKey(),
+					change(before.path("throughput"), now.path("throughput")),
+					change(before.path("latencyMs").path("p50"), now.path("latencyMs").path("p50")),
+					change(before.path("latencyMs").path("p99"), now.path("latencyMs").path("p99")));
+		});
+	}
+
+	private static String change(JsonNode before, JsonNode now) {
+		if (!before.isNumber() || !now.isNumber() || before.asDouble() == 0) {
+			return "n/a";
+		}
+		return String.format("%+.1f%%", (now.asDouble() / before.asDouble() - 1) * 100);
+	}
+}
@@ -0,0 +1,194 @@
+package com.example.recipes.load;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import com.example.recipes.SyntheticRecipes;
+
+/**
+ * What the load test sends. Every arrival starts a session drawn from a weighted mix, and a
+ * session is one or more requests at fixed offsets from its arrival. Pages, filters and ids come
+ * from the caller's seeded {@link Random}, so a seed, mix and catalogue size replay the same
+ * requests on every build. Requests are shaped like the ones {@code app.js} sends: pages of 20
+ * with {@code count=cached}, and typeahead bursts of one title completion per keystroke followed
+ * by the search that fires once typing stops.
+ */
+final class Workload {
+
+	/** The endpoints results are reported by. */
+	enum Endpoint {
+		LIST("/api/recipes"),
+		SEARCH("/api/recipes/search"),
+		RECIPE("/api/recipes/{id}"),
+		STATS("/api/recipes/stats"),
+		SUGGEST("/api/recipes/suggest/titles");
+
+		final String route;
+
+		Endpoint(String route) {
+			this.route = route;
+		}
+
+		String key() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	enum Session {
+		LIST, SEARCH, RECIPE, STATS, TYPEAHEAD
+	}
+
+	static final class Request {
+		final Endpoint endpoint;
+		final String path;
+		/** When it is due, relative to the session's arrival. */
+		final long offsetNanos;
+
+		Request(Endpoint endpoint, String path, long offsetNanos) {
+			this.endpoint = endpoint;
+			this.path = path;
+			this.offsetNanos = offsetNanos;
+		}
+	}
+
+	static final String DEFAULT_MIX = "list=20,search=35,recipe=25,stats=5,typeahead=15";
+
+	/** {@code app.js} searches once the title field has been quiet for this long. */
+	private static final long SEARCH_DEBOUNCE_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+	private static final int PAGE_SIZE = 20;
+	private static final String[] RATINGS = { ">=3", ">=3.5", ">=4", ">=4.5", "4..5" };
+	private static final String[] TOTAL_TIMES = { "<=15", "<=30", "<=60", "<=120", "30..90" };
+	private static final String[] CALORIES = { "<=200", "<=400", "<=600", "400..800" };
+
+	private final Map<Session, Integer> mix;
+	private final Session[] sessions;
+	private final int[] cumulative;
+	private final int recipes;
+	private final long keystrokeNanos;
+	private final List<String> cuisines = SyntheticRecipes.cuisines();
+	private final List<String> dishes = SyntheticRecipes.dishes();
+
+	Workload(Map<Session, Integer> mix, int recipes, long keystrokeNanos) {
+		this.mix = mix;
+		this.sessions = mix.keySet().toArray(Session[]::new);
+		this.cumulative = new int[sessions.length];
+		int total = 0;
+		for (int i = 0; i < sessions.length; i++) {
+			total += mix.get(sessions[i]);
+			cumulative[i] = total;
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("The mix needs at least one positive weight");
+		}
+		this.recipes = recipes;
+		this.keystrokeNanos = keystrokeNanos;
+	}
+
+	/** Parses {@code list=20,search=35,...}; sessions left out get no weight. */
+	static Map<Session, Integer> parseMix(String mix) {
+		Map<Session, Integer> weights = new EnumMap<>(Session.class);
+		for (String part : mix.split(",")) {
+			String[] kv = part.trim().split("=", 2);
+			if (kv.length != 2) {
+				throw new IllegalArgumentException("Expected session=weight in the mix, got: " + part);
+			}
+			int weight = Integer.parseInt(kv[1].trim());
+			if (weight < 0) {
+				throw new IllegalArgumentException("Negative weight in the mix: " + part);
+			}
+			weights.put(Session.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+		}
+		return weights;
+	}
+
+	String mix() {
+		StringJoiner joiner = new StringJoiner(",");
+		mix.forEach((session, weight) -> joiner.add(session.name().toLowerCase(Locale.ROOT) + "=" + weight));
+		return joiner.toString();
+	}
+
+	/** The requests of the next session. */
+	List<Request> next(Random random) {
+		int pick = random.nextInt(cumulative[cumulative.length - 1]);
+		int i = 0;
+		while (cumulative[i] <= pick) {
+			i++;
+		}
+		return switch (sessions[i]) {
+			case LIST -> List.of(new Request(Endpoint.LIST, "/api/recipes?page=" + page(random) + "&limit=" + PAGE_SIZE + "&count=cached", 0));
+			case SEARCH -> List.of(new Request(Endpoint.SEARCH, search(random), 0));
+			case RECIPE -> List.of(new Request(Endpoint.RECIPE, "/api/recipes/" + (1 + random.nextInt(recipes)), 0));
+			case STATS -> List.of(new Request(Endpoint.STATS, "/api/recipes/stats", 0));
+			case TYPEAHEAD -> typeahead(random);
+		};
+	}
+
+	/** Mostly the first pages, with a tail of deeper ones. */
+	private static int page(Random random) {
+		return 1 + (int) Math.min(50, -Math.log(1 - random.nextDouble()) * 2);
+	}
+
+	private String search(Random random) {
+		StringBuilder q = new StringBuilder();
+		if (random.nextInt(10) < 4) {
+			String[] words = dish(random).split(" ");
+			param(q, "title", words[random.nextInt(words.length)]);
+		}
+		if (random.nextInt(10) < 4) {
+			param(q, "cuisine", cuisines.get(random.nextInt(cuisines.size())).toLowerCase(Locale.ROOT));
+		}
+		if (random.nextInt(10) < 3) {
+			param(q, "rating", RATINGS[random.nextInt(RATINGS.length)]);
+		}
+		if (random.nextInt(10) < 3) {
+			param(q, "total_time", TOTAL_TIMES[random.nextInt(TOTAL_TIMES.length)]);
+		}
+		if (q.isEmpty() || random.nextInt(10) == 0) {
+			param(q, "calories", CALORIES[random.nextInt(CALORIES.length)]);
+		}
+		return "/api/recipes/search?" + q + "&page=" + page(random) + "&limit=" + PAGE_SIZE + "&count=cached";
+	}
+
+	/**
+	 * A user typing a dish into the title filter: a completion per keystroke from the third
+	 * character on, then the search for what was typed once the debounce has passed.
+	 */
+	private List<Request> typeahead(Random random) {
+		String dish = dish(random).toLowerCase(Locale.ROOT);
+		int typed = 3 + random.nextInt(dish.length() - 2);
+		List<Request> requests = new ArrayList<>(typed);
+		for (int n = 3; n <= typed; n++) {
+			String prefix = dish.substring(0, n).trim();
+			requests.add(new Request(Endpoint.SUGGEST, "/api/recipes/suggest/titles?prefix=" + encode(prefix) + "&limit=8",
+					(n - 1) * keystrokeNanos));
+		}
+		StringBuilder q = new StringBuilder();
+		param(q, "title", dish.substring(0, typed).trim());
+		requests.add(new Request(Endpoint.SEARCH, "/api/recipes/search?" + q + "&page=1&limit=" + PAGE_SIZE + "&count=cached",
+				(typed - 1) * keystrokeNanos + SEARCH_DEBOUNCE_NANOS));
+		return requests;
+	}
+
+	private String dish(Random random) {
+		return dishes.get(random.nextInt(dishes.size()));
+	}
+
+	private static void param(StringBuilder q, String name, String value) {
+		if (!q.isEmpty()) {
+			q.append('&');
+		}
+		q.append(name).append('=').append(encode(value));
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.recipes.repo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+
+/** Range filter parsing and matching, and the WHERE clause every SQL search builds before touching the database. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchFilterBenchmark {
+
+	@Param({ ">=4.5", " <= 400 ", "120", "30..60", "<10,20..30,>=60" })
+	public String expr;
+
+	@Param({ "none", "title", "cuisine", "rating", "title+cuisine+rating", "all" })
+	public String filters;
+
+	private SearchParams params;
+	private RangeFilter compiled;
+
+	@Setup
+	public void setUp() {
+		compiled = RangeFilter.parse(expr, false);
+		params = new SearchParams();
+		if (filters.equals("title") || filters.startsWith("title+") || filters.equals("all")) {
+			params.title = "Pie";
+		}
+		if (filters.equals("cuisine") || filters.contains("+cuisine") || filters.equals("all")) {
+			params.cuisine = "Southern Recipes";
+		}
+		if (filters.equals("rating") || filters.endsWith("+rating") || filters.equals("all")) {
+			params.ratingExpr = ">=4.5";
+		}
+		if (filters.equals("all")) {
+			params.totalTimeExpr = "<=60";
+			params.caloriesExpr = "<=400";
+		}
+	}
+
+	@Benchmark
+	public Object parseRange() {
+		return RangeFilter.parse(expr, false);
+	}
+
+	/** Matching one value against the compiled filter, as the in-memory engine does per row. */
+	@Benchmark
+	public boolean testRange() {
+		return compiled.test(42);
+	}
+
+	/** Without a title index, as with {@code recipes.search.title-index=false}. */
+	@Benchmark
+	public Object buildFilter() {
+		return RecipeSearchRepository.filter(params, null, null, null, 1000);
+	}
+
+	@Benchmark
+	public String cacheKey() {
+		return params.cacheKey();
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.recipes.search;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.recipes.SyntheticRecipes;
+import com.example.recipes.entity.Recipe;
+
+/** Title completions per keystroke, from a one-letter prefix matching most titles to a nearly unique one. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestIndexBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int recipes;
+
+	@Param({ "p", "pe", "pecan p", "classic pecan pie 12" })
+	public String prefix;
+
+	private SuggestIndex index;
+
+	@Setup
+	public void setUp() {
+		List<Recipe> rows = SyntheticRecipes.recipes(recipes, 42);
+		String[] titles = new String[rows.size()];
+		double[] weights = new double[rows.size()];
+		for (int i = 0; i < titles.length; i++) {
+			titles[i] = rows.get(i).getTitle();
+			weights[i] = rows.get(i).getRating() != null ? rows.get(i).getRating() : 0;
+		}
+		index = SuggestIndex.build(titles, weights);
+	}
+
+	@Benchmark
+	public List<String> complete() {
+		return index.complete(prefix, 10);
+	}
+}
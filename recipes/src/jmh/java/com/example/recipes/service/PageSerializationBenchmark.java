@@ -0,0 +1,85 @@
+package com.example.recipes.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.recipes.SyntheticRecipes;
+import com.example.recipes.dto.RecipeDto;
+import com.example.recipes.dto.RecipeSummaryDto;
+import com.example.recipes.entity.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Encoding of list/search responses as JSON or CBOR, optionally gzipped as the server does,
+ * with the mapper settings Spring MVC uses. Payload sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+	@Param({ "summary", "full" })
+	public String fields;
+
+	@Param({ "10", "50" })
+	public int limit;
+
+	@Param({ "json", "cbor" })
+	public String format;
+
+	@Param({ "false", "true" })
+	public boolean gzip;
+
+	private ObjectMapper mapper;
+	private Map<String, Object> response;
+
+	@Setup
+	public void setUp() throws Exception {
+		mapper = format.equals("cbor") ? Jackson2ObjectMapperBuilder.cbor().build() : Jackson2ObjectMapperBuilder.json().build();
+		List<Recipe> page = SyntheticRecipes.recipes(limit, 3);
+		// Same shape as RecipeService builds for GET /api/recipes
+		response = new HashMap<>();
+		response.put("page", 1);
+		response.put("limit", limit);
+		response.put("total", 8_451L);
+		response.put("hasMore", true);
+		response.put("data", fields.equals("summary")
+				? page.stream().map(RecipeSummaryDto::from).toList()
+				: page.stream().map(RecipeDto::from).toList());
+		response.put("next", "NC44OjEyMzQ");
+		System.out.printf("payload fields=%s limit=%d format=%s gzip=%s: %d bytes%n",
+				fields, limit, format, gzip, writePage().length);
+	}
+
+	@Benchmark
+	public byte[] writePage() throws Exception {
+		if (!gzip) {
+			return mapper.writeValueAsBytes(response);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+		try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+			mapper.writeValue(zip, response);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.recipes.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.recipes.SyntheticRecipes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Per-record cost of turning a feed record into an entity, which bounds a single import worker. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeMappingBenchmark {
+
+	private static final int RECORDS = 1_000;
+
+	private RecipeImporter importer;
+	private List<Map<String, Object>> records;
+
+	@Setup
+	public void setUp() {
+		// Mapping only needs the ObjectMapper; the database collaborators stay unset
+		importer = new RecipeImporter(null, new ObjectMapper(), null, null, null, null, null, null, null);
+		records = SyntheticRecipes.raw(RECORDS, 7);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public void mapRawDataToRecipe(Blackhole bh) {
+		for (Map<String, Object> raw : records) {
+			bh.consume(importer.mapRawDataToRecipe(raw));
+		}
+	}
+}
@@ -1,17 +1,51 @@
 package com.example.recipes.config;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({ RecipeCacheProperties.class, FacetProperties.class, ReplicaProperties.class })
 public class AppConfig {
 
+    public static final String RECIPE_STATISTICS = "recipeStatistics";
+    public static final String RECIPE_SEARCH = "recipeSearch";
+    public static final String RECIPE_LIST = "recipeList";
+    public static final String RECIPE_BY_ID = "recipeById";
+    public static final String RECIPE_COUNTS = "recipeCounts";
+
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("recipeStatistics");
+    public CacheManager cacheManager(RecipeCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        register(cacheManager, RECIPE_STATISTICS, properties.getStatistics());
+        register(cacheManager, RECIPE_SEARCH, properties.getSearch());
+        register(cacheManager, RECIPE_LIST, properties.getList());
+        register(cacheManager, RECIPE_BY_ID, properties.getById());
+        register(cacheManager, RECIPE_COUNTS, properties.getCounts());
+        return cacheManager;
+    }
+
+    /** Runs independent queries of one request side by side; bounded in practice by the connection pool. */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService queryExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("query-", 0).factory());
+    }
+
+    // Stats feed the cache.gets / cache.evictions meters on /actuator/metrics
+    private static void register(CaffeineCacheManager cacheManager, String name, RecipeCacheProperties.Region region) {
+        cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .maximumSize(region.getMaxSize())
+                .expireAfterWrite(region.getTtl())
+                .recordStats()
+                .build());
     }
 }
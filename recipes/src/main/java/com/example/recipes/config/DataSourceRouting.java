@@ -0,0 +1,44 @@
+package com.example.recipes.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks work that may read from a replica. Connections opened by the current thread inside
+ * {@link #onReplica} come from a replica when {@link ReadWriteRoutingDataSource} is configured;
+ * everything else, writes and imports included, stays on the primary. Without replicas the
+ * scope has no effect.
+ * <p>
+ * Routing happens when a connection is opened, so a read that joins a transaction already
+ * holding a primary connection stays on the primary.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /** Runs {@code read} with replica reads allowed, restoring the caller's scope afterwards. */
+    public static <T> T onReplica(Supplier<T> read) {
+        Boolean outer = REPLICA_READ.get();
+        REPLICA_READ.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (outer == null) {
+                REPLICA_READ.remove();
+            } else {
+                REPLICA_READ.set(outer);
+            }
+        }
+    }
+
+    public static boolean isReplicaRead() {
+        return REPLICA_READ.get() != null;
+    }
+
+    /** {@code task} carrying the current scope along, for handing to another thread. */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        return isReplicaRead() ? () -> onReplica(task) : task;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.recipes.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.example.recipes.util.RecipesImportedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the auto-configured data source with a {@link ReadWriteRoutingDataSource} when
+ * {@code recipes.datasource.replicas.enabled=true}: the primary pool is built from
+ * {@code spring.datasource} as before, and every replica URL gets a read-only pool of its own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recipes.datasource.replicas", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("recipes-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                 DataSourceProperties properties, ReplicaProperties replicas) {
+        if (replicas.getUrls().isEmpty()) {
+            throw new IllegalStateException("recipes.datasource.replicas.urls must list at least one replica");
+        }
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < replicas.getUrls().size(); i++) {
+            pools.add(replica(i + 1, replicas.getUrls().get(i), properties, replicas));
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, pools, replicas.getReadYourWritesWindow());
+        routing.startHealthChecks(replicas.getHealthCheckInterval());
+        return routing;
+    }
+
+    /** Starts the read-your-writes window once an import has written its changes. */
+    @Bean
+    public ApplicationListener<PayloadApplicationEvent<RecipesImportedEvent>> readYourWrites(ReadWriteRoutingDataSource dataSource) {
+        return ApplicationListener.forPayload(imported -> dataSource.markWritten());
+    }
+
+    private static HikariDataSource replica(int n, String url, DataSourceProperties properties, ReplicaProperties replicas) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("recipes-replica-" + n);
+        pool.setJdbcUrl(url);
+        pool.setDriverClassName(properties.determineDriverClassName());
+        pool.setUsername(replicas.getUsername() != null ? replicas.getUsername() : properties.determineUsername());
+        pool.setPassword(replicas.getPassword() != null ? replicas.getPassword() : properties.determinePassword());
+        pool.setMaximumPoolSize(replicas.getMaximumPoolSize());
+        pool.setConnectionTimeout(replicas.getConnectionTimeout().toMillis());
+        pool.setReadOnly(true);
+        // Start even while a replica is down; the health checks put it in rotation once it is up
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.recipes.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/** Bucket boundaries of the numeric search facets, and how many cuisines the cuisine facet lists. */
+@Getter @Setter
+@Validated
+@ConfigurationProperties(prefix = "recipes.facets")
+public class FacetProperties {
+
+    @NotEmpty
+    private List<Double> rating = List.of(3.0, 3.5, 4.0, 4.5);
+    @NotEmpty
+    private List<Double> totalTime = List.of(15.0, 30.0, 60.0, 120.0);
+    @NotEmpty
+    private List<Double> calories = List.of(200.0, 400.0, 600.0, 800.0);
+    @Min(1)
+    private int cuisineLimit = 20;
+}
@@ -0,0 +1,50 @@
+package com.example.recipes.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.example.recipes.web.TimedCborHttpMessageConverter;
+import com.example.recipes.web.TimedJsonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class MetricsConfig {
+
+    /** Replaces Boot's default JSON converter so that response encoding is timed. */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        return new TimedJsonHttpMessageConverter(objectMapper, registry);
+    }
+
+    /** CBOR next to JSON, built from the same Boot-configured mapper settings. */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder, MeterRegistry registry) {
+        return new TimedCborHttpMessageConverter(builder.factory(new CBORFactory()).build(), registry);
+    }
+
+    /** {@code recipes.cache.hit.ratio} per region, read from the Caffeine stats on each scrape. */
+    @Bean
+    public MeterBinder cacheHitRatios(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                    Gauge.builder("recipes.cache.hit.ratio", caffeine, c -> c.stats().hitRate())
+                            .description("Share of lookups served from the cache region")
+                            .tag("cache", name)
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.recipes.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Sends connections opened inside {@link DataSourceRouting#onReplica} to the replicas, round
+ * robin over those that are healthy, and every other connection to the primary. A replica that
+ * fails to hand out a connection is taken out of rotation and the next one is tried; when none
+ * is left the read falls back to the primary. A periodic check puts recovered replicas back.
+ * <p>
+ * For {@code readYourWritesWindow} after {@link #markWritten()}, reads go to the primary too,
+ * so that what an import wrote is visible before the replicas have caught up.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long readYourWritesMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile long primaryReadsUntil;
+    private ScheduledExecutorService healthChecks;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration readYourWritesWindow) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.readYourWritesMillis = readYourWritesWindow.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(ds -> ds.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!DataSourceRouting.isReplicaRead() || replicas.isEmpty()
+                || System.currentTimeMillis() < primaryReadsUntil) {
+            return source.open(primary);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return source.open(replica.dataSource);
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        return source.open(primary);
+    }
+
+    /** Starts a read-your-writes window; a no-op when the window is zero. */
+    public void markWritten() {
+        if (readYourWritesMillis > 0) {
+            primaryReadsUntil = System.currentTimeMillis() + readYourWritesMillis;
+        }
+    }
+
+    /** Checks every replica each {@code interval}. */
+    public synchronized void startHealthChecks(Duration interval) {
+        if (healthChecks == null && !replicas.isEmpty()) {
+            healthChecks = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("replica-health").factory());
+            long millis = Math.max(1, interval.toMillis());
+            healthChecks.scheduleWithFixedDelay(this::checkReplicas, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Takes replicas that cannot hand out a valid connection out of rotation, and puts the others back. */
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection c = replica.dataSource.getConnection()) {
+                if (!c.isValid(2)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    logger.info("Replica {} is back in rotation", replica.name);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    /** Replicas currently in rotation. */
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(r -> r.healthy).count();
+    }
+
+    private static void markDown(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Replica {} taken out of rotation: {}", replica.name, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools; the primary is closed by its owner.
+     * A pool that fails to close is logged and does not keep the others open.
+     */
+    @Override
+    public synchronized void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.recipes.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "recipes.cache")
+public class RecipeCacheProperties {
+
+    private Region statistics = new Region(1, Duration.ofMinutes(10));
+    private Region search = new Region(10_000, Duration.ofMinutes(5));
+    private Region list = new Region(1_000, Duration.ofMinutes(5));
+    private Region byId = new Region(10_000, Duration.ofMinutes(30));
+    private Region counts = new Region(1_000, Duration.ofMinutes(30));
+
+    @Getter @Setter
+    public static class Region {
+        private long maxSize;
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        public Region(long maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.recipes.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read replicas that {@link ReadWriteRoutingDataSource} sends search, list, lookup and statistics
+ * reads to. The primary stays {@code spring.datasource}; username, password and driver default
+ * to its settings.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "recipes.datasource.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    /** Connections per replica. */
+    private int maximumPoolSize = 10;
+    /** How long a read waits for a replica connection before trying the next replica. */
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+    /** How long reads stay on the primary after an import, while the replicas catch up; zero disables it. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(30);
+}
@@ -0,0 +1,38 @@
+package com.example.recipes.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a column that already holds JSON text as a nested value. JSON output copies the
+ * text through unparsed, like the export does; binary formats such as CBOR cannot take raw
+ * text, so there it is tokenized once and re-encoded.
+ */
+public class RawJsonSerializer extends StdSerializer<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public RawJsonSerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (gen instanceof JsonGeneratorImpl) {
+            gen.writeRawValue(value);
+            return;
+        }
+        try (JsonParser parser = JSON.createParser(value)) {
+            parser.nextToken();
+            gen.copyCurrentStructure(parser);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.example.recipes.dto;
 
 import com.example.recipes.entity.Recipe;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
-import java.util.Map;
-
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class RecipeDto {
     private Long id;
@@ -15,7 +14,9 @@ public class RecipeDto {
     private Integer cook_time;
     private Integer total_time;
     private String description;
-    private Map<String, Object> nutrients;
+    /** Stored JSON text, written into the response as a nested object. */
+    @JsonSerialize(using = RawJsonSerializer.class)
+    private String nutrients;
     private String serves;
 
     public static RecipeDto from(Recipe r) {
@@ -0,0 +1,40 @@
+package com.example.recipes.dto;
+
+import com.example.recipes.entity.CuisineConverter;
+import com.example.recipes.entity.Recipe;
+import lombok.*;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RecipeSummaryDto {
+    public static final String COLUMNS = "r.id, r.title, r.cuisine, r.rating, r.total_time, r.serves";
+
+    private Long id;
+    private String title;
+    private String cuisine;
+    private Double rating;
+    private Integer total_time;
+    private String serves;
+
+    public static RecipeSummaryDto from(Recipe r) {
+        return RecipeSummaryDto.builder()
+                .id(r.getId())
+                .title(r.getTitle())
+                .cuisine(r.getCuisine())
+                .rating(r.getRating())
+                .total_time(r.getTotal_time())
+                .serves(r.getServes())
+                .build();
+    }
+
+    /** Maps a native query row selected with {@link #COLUMNS}. */
+    public static RecipeSummaryDto fromRow(Object[] row) {
+        return RecipeSummaryDto.builder()
+                .id(((Number) row[0]).longValue())
+                .title((String) row[1])
+                .cuisine(CuisineConverter.intern((String) row[2]))
+                .rating(row[3] != null ? ((Number) row[3]).doubleValue() : null)
+                .total_time(row[4] != null ? ((Number) row[4]).intValue() : null)
+                .serves((String) row[5])
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.recipes.dto;
+
+import org.springframework.web.bind.annotation.BindParam;
+
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.repo.SearchFacets;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+
+/**
+ * A search by the names of the {@code /search} query parameters, bound from them for
+ * {@code /search} and {@code /export} and from JSON for each entry of a multi-search body.
+ * The multi-word parameters are snake_case on the wire, hence {@link BindParam} and
+ * {@link JsonProperty} on those components.
+ */
+@Builder
+public record SearchRequest(
+        String calories,
+        String title,
+        String cuisine,
+        @BindParam("total_time") @JsonProperty("total_time") String totalTime,
+        String rating,
+        String protein,
+        String fat,
+        String carbohydrates,
+        String sodium,
+        @BindParam("ingredients_all") @JsonProperty("ingredients_all") String ingredientsAll,
+        @BindParam("ingredients_any") @JsonProperty("ingredients_any") String ingredientsAny,
+        @BindParam("ingredients_none") @JsonProperty("ingredients_none") String ingredientsNone,
+        Integer page,
+        Integer limit,
+        String cursor,
+        String count,
+        String fields,
+        String facets) {
+
+    /** Filters, paging and shape, each validated. */
+    public RecipeSearchRepository.SearchParams toParams() {
+        RecipeSearchRepository.SearchParams params = toFilterParams();
+        params.page = page != null ? page : 1;
+        params.limit = limit != null ? limit : 10;
+        params.cursor = cursor;
+        params.count = RecipeSearchRepository.CountMode.parse(count, RecipeSearchRepository.CountMode.NONE);
+        params.summary = RecipeSearchRepository.SearchParams.isSummary(fields);
+        params.facets = SearchFacets.parse(facets);
+        return params;
+    }
+
+    /** The filters alone, for consumers such as the export that page and shape rows themselves. */
+    public RecipeSearchRepository.SearchParams toFilterParams() {
+        RecipeSearchRepository.SearchParams params = new RecipeSearchRepository.SearchParams();
+        params.caloriesExpr = calories;
+        params.title = title;
+        params.cuisine = cuisine;
+        params.totalTimeExpr = totalTime;
+        params.ratingExpr = rating;
+        params.proteinExpr = protein;
+        params.fatExpr = fat;
+        params.carbohydratesExpr = carbohydrates;
+        params.sodiumExpr = sodium;
+        params.ingredientsAll = ingredientsAll;
+        params.ingredientsAny = ingredientsAny;
+        params.ingredientsNone = ingredientsNone;
+        return params;
+    }
+}
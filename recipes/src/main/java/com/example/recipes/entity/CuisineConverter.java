@@ -0,0 +1,46 @@
+package com.example.recipes.entity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Reads cuisines as shared strings. There are a few dozen distinct cuisines across all recipes,
+ * so entities and DTOs of one cuisine point at a single instance instead of each holding the
+ * copy its result set row produced.
+ */
+@Converter
+public class CuisineConverter implements AttributeConverter<String, String> {
+
+    /** Past this many spellings, further values are returned as they are. */
+    private static final int MAX_SPELLINGS = 10_000;
+    private static final Map<String, String> SPELLINGS = new ConcurrentHashMap<>();
+
+    /** The shared instance equal to {@code cuisine}. */
+    public static String intern(String cuisine) {
+        if (cuisine == null) {
+            return null;
+        }
+        String shared = SPELLINGS.get(cuisine);
+        if (shared != null) {
+            return shared;
+        }
+        if (SPELLINGS.size() >= MAX_SPELLINGS) {
+            return cuisine;
+        }
+        shared = SPELLINGS.putIfAbsent(cuisine, cuisine);
+        return shared != null ? shared : cuisine;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String cuisine) {
+        return cuisine;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String column) {
+        return intern(column);
+    }
+}
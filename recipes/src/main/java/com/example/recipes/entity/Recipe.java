@@ -1,12 +1,7 @@
 package com.example.recipes.entity;
 
-import java.util.Map;
-
-import org.hibernate.annotations.Type;
-
-import com.vladmihalcea.hibernate.type.json.JsonType;
-
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -33,15 +28,20 @@ public class Recipe {
     private Long id;
 
     @Size(max = 255, message = "Cuisine must be less than 255 characters")
+    @Convert(converter = CuisineConverter.class)
     private String cuisine;
 
+    /** Dictionary id of the cuisine; see {@code CuisineDictionary}. */
+    @Column(name = "cuisine_id")
+    private Integer cuisineId;
+
     @NotBlank(message = "Title is required")
     @Size(max = 500, message = "Title must be less than 500 characters")
     @Column(length = 500, nullable = false)
     private String title;
 
     @PositiveOrZero(message = "Rating must be a positive number or zero")
-    @Column(precision = 3, scale = 2)
+    @Column(columnDefinition = "DECIMAL(3,2)")
     private Double rating;
 
     @PositiveOrZero(message = "Prep time must be a positive number or zero")
@@ -68,17 +68,34 @@ public class Recipe {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String ingredients;
 
+    /** Distinct normalized ingredient words, space-separated; see {@code IngredientTokens}. */
+    @Column(name = "ingredient_tokens", columnDefinition = "TEXT")
+    private String ingredientTokens;
+
     @Lob
     @Column(columnDefinition = "TEXT", nullable = false)
     private String instructions;
 
-    @Type(JsonType.class)
+    /** The feed's nutrient object as stored JSON text; read and written as-is, never parsed. */
     @Column(columnDefinition = "json")
-    private Map<String, Object> nutrients;
+    private String nutrients;
 
     @Size(max = 255, message = "Serves must be less than 255 characters")
     private String serves;
 
     @Column(name = "calories_num", insertable = false, updatable = false)
     private Integer caloriesNum;
+
+    // Typed nutrients, generated by the database from the nutrients JSON
+    @Column(name = "protein_g", insertable = false, updatable = false)
+    private Double proteinG;
+
+    @Column(name = "fat_g", insertable = false, updatable = false)
+    private Double fatG;
+
+    @Column(name = "carbohydrates_g", insertable = false, updatable = false)
+    private Double carbohydratesG;
+
+    @Column(name = "sodium_mg", insertable = false, updatable = false)
+    private Integer sodiumMg;
 }
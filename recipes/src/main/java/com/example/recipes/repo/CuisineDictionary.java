@@ -0,0 +1,169 @@
+package com.example.recipes.repo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.recipes.entity.CuisineConverter;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Dictionary encoding of cuisines. Every distinct cuisine, compared trimmed and lower-cased,
+ * is a row of the {@code cuisines} table that recipes reference by {@code cuisine_id}, so the
+ * cuisine filter and facet work on a small indexed integer. Recipes without a cuisine reference
+ * the row with the empty key.
+ * <p>
+ * Each row also carries the recipe count and the rating and total time sums of its recipes.
+ * The importer adjusts them with {@link Changes} in the same transaction as the rows it
+ * writes, so statistics are read from the dictionary instead of aggregated over recipes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CuisineDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Ids by {@link #key}; only cuisines that exist are cached. */
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+    /** The canonical form cuisines are compared in: trimmed and lower-cased, empty for none. */
+    public static String key(String cuisine) {
+        return cuisine == null ? "" : cuisine.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Id of {@code cuisine}, or {@code null} when no recipe was ever imported with it. */
+    public Integer find(String cuisine) {
+        String key = key(cuisine);
+        Integer id = ids.get(key);
+        if (id == null) {
+            List<Integer> found = jdbcTemplate.queryForList("SELECT id FROM cuisines WHERE cuisine_key = ?", Integer.class, key);
+            if (!found.isEmpty()) {
+                id = found.get(0);
+                ids.put(key, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Id of {@code cuisine}, adding it to the dictionary when it is new. Runs outside any
+     * surrounding transaction's rollback: callers resolve before they start writing rows.
+     */
+    public int resolve(String cuisine) {
+        Integer id = find(cuisine);
+        if (id != null) {
+            return id;
+        }
+        String name = cuisine == null ? "" : cuisine.trim();
+        // Concurrent importers may add the same cuisine; the unique key keeps the first
+        jdbcTemplate.update("INSERT IGNORE INTO cuisines (cuisine_key, name) VALUES (?, ?)", key(cuisine), name);
+        id = find(cuisine);
+        if (id == null) {
+            throw new IllegalStateException("Cuisine was not added to the dictionary: " + name);
+        }
+        return id;
+    }
+
+    /** Display name of cuisine {@code id}: the spelling it was first imported with, empty for none. */
+    public String name(int id) {
+        String name = names.get(id);
+        if (name == null) {
+            List<String> found = jdbcTemplate.queryForList("SELECT name FROM cuisines WHERE id = ?", String.class, id);
+            if (found.isEmpty()) {
+                return null;
+            }
+            name = CuisineConverter.intern(found.get(0));
+            names.put(id, name);
+        }
+        return name;
+    }
+
+    /** Adds {@code changes} to the aggregates, in id order so that concurrent chunks cannot deadlock. */
+    public void apply(Changes changes) {
+        List<Object[]> rows = new ArrayList<>();
+        changes.deltas().forEach((id, d) -> rows.add(new Object[] { d[0], d[1], BigDecimal.valueOf(d[2], 2), d[3], d[4], id }));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE cuisines SET recipes = recipes + ?, rated = rated + ?, rating_sum = rating_sum + ?, "
+                    + "timed = timed + ?, total_time_sum = total_time_sum + ? WHERE id = ?", rows);
+        }
+    }
+
+    /** Every row of the dictionary with its aggregates. */
+    public List<Aggregate> aggregates() {
+        return jdbcTemplate.query("SELECT id, name, recipes, rated, rating_sum, timed, total_time_sum FROM cuisines", (rs, i) -> {
+            Aggregate a = new Aggregate();
+            a.id = rs.getInt(1);
+            a.name = CuisineConverter.intern(rs.getString(2));
+            a.recipes = rs.getLong(3);
+            a.rated = rs.getLong(4);
+            a.ratingSum = rs.getBigDecimal(5);
+            a.timed = rs.getLong(6);
+            a.totalTimeSum = rs.getLong(7);
+            return a;
+        });
+    }
+
+    public static class Aggregate {
+        public int id;
+        /** Empty for recipes without a cuisine. */
+        public String name;
+        public long recipes;
+        /** Recipes with a rating, and the sum of their ratings. */
+        public long rated;
+        public BigDecimal ratingSum;
+        /** Recipes with a total time, and the sum of their total times. */
+        public long timed;
+        public long totalTimeSum;
+    }
+
+    /** Net change of each cuisine's aggregates from rows written in one transaction. */
+    public static final class Changes {
+        /** Per cuisine id: recipes, rated, rating sum in hundredths, timed, total time sum. */
+        private final Map<Integer, long[]> byCuisine = new TreeMap<>();
+
+        public void add(Integer cuisineId, Double rating, Integer totalTime) {
+            change(cuisineId, rating, totalTime, 1);
+        }
+
+        public void remove(Integer cuisineId, Double rating, Integer totalTime) {
+            change(cuisineId, rating, totalTime, -1);
+        }
+
+        private void change(Integer cuisineId, Double rating, Integer totalTime, int sign) {
+            if (cuisineId == null) {
+                return;
+            }
+            long[] d = byCuisine.computeIfAbsent(cuisineId, k -> new long[5]);
+            d[0] += sign;
+            if (rating != null) {
+                d[1] += sign;
+                // Ratings are DECIMAL(3,2); summing hundredths keeps the total exact
+                d[2] += sign * Math.round(rating * 100);
+            }
+            if (totalTime != null) {
+                d[3] += sign;
+                d[4] += sign * (long) totalTime;
+            }
+        }
+
+        /** The non-zero deltas by ascending cuisine id. */
+        Map<Integer, long[]> deltas() {
+            Map<Integer, long[]> deltas = new TreeMap<>();
+            byCuisine.forEach((id, d) -> {
+                if (d[0] != 0 || d[1] != 0 || d[2] != 0 || d[3] != 0 || d[4] != 0) {
+                    deltas.put(id, d);
+                }
+            });
+            return deltas;
+        }
+    }
+}
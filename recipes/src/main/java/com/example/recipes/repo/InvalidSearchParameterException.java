@@ -0,0 +1,15 @@
+package com.example.recipes.repo;
+
+/**
+ * A search, export or lookup parameter the caller got wrong: a malformed filter expression,
+ * cursor, count mode, facet or format, or a limit out of bounds. Answered with
+ * {@code 400 Bad Request} and the message; any other exception is a server error.
+ */
+public class InvalidSearchParameterException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidSearchParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.recipes.repo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A numeric search filter, parsed once into a union of sorted, disjoint intervals.
+ * <p>
+ * Grammar (whitespace is ignored):
+ * <pre>
+ * expr  := term (',' term)*             union, e.g. {@code 30,45,60} or {@code <20,40..60}
+ * term  := [num] '..' [num]             inclusive range, either bound may be left open
+ *        | (op num)+                    all comparisons hold, e.g. {@code >=4<5}
+ *        | num                          equality
+ * op    := '>=' | '<=' | '>' | '<' | '='
+ * </pre>
+ * The same filter renders as index-friendly SQL ({@code =}, {@code IN}, bound comparisons)
+ * and answers {@link #test} over closed bounds held in primitive arrays, without allocating.
+ * For integer columns the bounds are tightened to whole numbers up front, so {@code >4.5}
+ * and {@code >=5} are the same filter.
+ */
+public final class RangeFilter {
+
+    private final boolean integral;
+    private final double[] lo;
+    private final double[] hi;
+    private final boolean[] loInclusive;
+    private final boolean[] hiInclusive;
+    // Closed form of the same intervals; exclusive double bounds move to the adjacent value
+    private final double[] min;
+    private final double[] max;
+
+    private RangeFilter(boolean integral, List<double[]> intervals) {
+        int n = intervals.size();
+        this.integral = integral;
+        lo = new double[n];
+        hi = new double[n];
+        loInclusive = new boolean[n];
+        hiInclusive = new boolean[n];
+        min = new double[n];
+        max = new double[n];
+        for (int i = 0; i < n; i++) {
+            double[] iv = intervals.get(i);
+            lo[i] = iv[0];
+            hi[i] = iv[1];
+            loInclusive[i] = iv[2] != 0;
+            hiInclusive[i] = iv[3] != 0;
+            min[i] = loInclusive[i] ? lo[i] : Math.nextUp(lo[i]);
+            max[i] = hiInclusive[i] ? hi[i] : Math.nextDown(hi[i]);
+        }
+    }
+
+    /**
+     * Parses {@code expr} for a column holding whole numbers ({@code integral}) or decimals.
+     * Returns {@code null} for a blank expression.
+     *
+     * @throws InvalidSearchParameterException if the expression does not follow the grammar
+     */
+    public static RangeFilter parse(String expr, boolean integral) {
+        if (expr == null || expr.isBlank()) {
+            return null;
+        }
+        Parser parser = new Parser(expr);
+        List<double[]> intervals = new ArrayList<>();
+        do {
+            double[] iv = parser.term();
+            if (integral) {
+                tighten(iv);
+            }
+            if (iv[0] < iv[1] || (iv[0] == iv[1] && iv[2] != 0 && iv[3] != 0)) {
+                intervals.add(iv);
+            }
+        } while (parser.comma());
+        return new RangeFilter(integral, merge(intervals, integral));
+    }
+
+    /** True when no value can match, e.g. {@code >5<3}. */
+    public boolean isEmpty() {
+        return lo.length == 0;
+    }
+
+    /** Whether {@code v} matches; {@code NaN}, standing for SQL NULL, never does. */
+    public boolean test(double v) {
+        int n = min.length;
+        if (n <= 4) {
+            for (int i = 0; i < n; i++) {
+                if (v >= min[i] && v <= max[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // Last interval starting at or below v
+        int a = 0, b = n - 1, hit = -1;
+        while (a <= b) {
+            int mid = (a + b) >>> 1;
+            if (min[mid] <= v) {
+                hit = mid;
+                a = mid + 1;
+            } else {
+                b = mid - 1;
+            }
+        }
+        return hit >= 0 && v <= max[hit];
+    }
+
+    /**
+     * Appends {@code AND <predicate> } on {@code column} to {@code sql}, binding values under
+     * names starting with {@code name}. Point intervals are grouped into one {@code IN} list.
+     */
+    void appendSql(StringBuilder sql, Map<String, Object> params, String column, String name) {
+        List<Object> points = new ArrayList<>();
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < lo.length; i++) {
+            if (lo[i] == hi[i]) {
+                points.add(value(lo[i]));
+                continue;
+            }
+            StringBuilder range = new StringBuilder();
+            if (lo[i] != Double.NEGATIVE_INFINITY) {
+                String p = name + "Lo" + i;
+                range.append(column).append(loInclusive[i] ? " >= :" : " > :").append(p);
+                params.put(p, value(lo[i]));
+            }
+            if (hi[i] != Double.POSITIVE_INFINITY) {
+                String p = name + "Hi" + i;
+                range.append(range.length() > 0 ? " AND " : "").append(column)
+                        .append(hiInclusive[i] ? " <= :" : " < :").append(p);
+                params.put(p, value(hi[i]));
+            }
+            ranges.add(range.length() > 0 ? range.toString() : column + " IS NOT NULL");
+        }
+        if (points.size() == 1) {
+            ranges.add(column + " = :" + name);
+            params.put(name, points.get(0));
+        } else if (!points.isEmpty()) {
+            ranges.add(column + " IN (:" + name + ")");
+            params.put(name, points);
+        }
+        sql.append(ranges.size() == 1 ? "AND " + ranges.get(0) : "AND (" + String.join(" OR ", ranges) + ")").append(' ');
+    }
+
+    private Object value(double v) {
+        return integral ? (Object) (long) v : (Object) v;
+    }
+
+    /** Canonical form, e.g. {@code [4.5..+inf)} or {@code [30..30]|[45..60]}. */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < lo.length; i++) {
+            if (i > 0) {
+                s.append('|');
+            }
+            s.append(loInclusive[i] ? '[' : '(').append(bound(lo[i])).append("..")
+                    .append(bound(hi[i])).append(hiInclusive[i] ? ']' : ')');
+        }
+        return s.toString();
+    }
+
+    private String bound(double v) {
+        if (Double.isInfinite(v)) {
+            return v > 0 ? "+inf" : "-inf";
+        }
+        return integral ? Long.toString((long) v) : Double.toString(v);
+    }
+
+    /** Whole-number closed bounds: {@code >4.5} becomes {@code >=5}, {@code <10} becomes {@code <=9}. */
+    private static void tighten(double[] iv) {
+        if (!Double.isInfinite(iv[0])) {
+            iv[0] = iv[2] != 0 ? Math.ceil(iv[0]) : Math.floor(iv[0]) + 1;
+            iv[2] = 1;
+        }
+        if (!Double.isInfinite(iv[1])) {
+            iv[1] = iv[3] != 0 ? Math.floor(iv[1]) : Math.ceil(iv[1]) - 1;
+            iv[3] = 1;
+        }
+    }
+
+    private static List<double[]> merge(List<double[]> intervals, boolean integral) {
+        intervals.sort((a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(b[2], a[2]));
+        List<double[]> merged = new ArrayList<>(intervals.size());
+        for (double[] iv : intervals) {
+            double[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            boolean joins = last != null && (iv[0] < last[1]
+                    || (iv[0] == last[1] && (last[3] != 0 || iv[2] != 0))
+                    || (integral && iv[0] == last[1] + 1));
+            if (!joins) {
+                merged.add(Arrays.copyOf(iv, 4));
+            } else if (iv[1] > last[1] || (iv[1] == last[1] && iv[3] != 0)) {
+                last[1] = iv[1];
+                last[3] = iv[3];
+            }
+        }
+        return merged;
+    }
+
+    /** Single pass over the expression; each term comes back as {lo, hi, loInclusive, hiInclusive}. */
+    private static final class Parser {
+        private final String expr;
+        private final String s;
+        private int pos;
+
+        Parser(String expr) {
+            this.expr = expr;
+            StringBuilder compact = new StringBuilder(expr.length());
+            for (int i = 0; i < expr.length(); i++) {
+                char c = expr.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    compact.append(c);
+                }
+            }
+            this.s = compact.toString();
+        }
+
+        double[] term() {
+            double[] iv = { Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0, 0 };
+            if (startsWith("..")) {
+                pos += 2;
+                iv[1] = number();
+                iv[3] = 1;
+                return iv;
+            }
+            if (pos < s.length() && isNumberStart(s.charAt(pos))) {
+                double v = number();
+                if (startsWith("..")) {
+                    pos += 2;
+                    iv[0] = v;
+                    iv[2] = 1;
+                    if (pos < s.length() && s.charAt(pos) != ',') {
+                        iv[1] = number();
+                        iv[3] = 1;
+                    }
+                    return iv;
+                }
+                iv[0] = iv[1] = v;
+                iv[2] = iv[3] = 1;
+                return iv;
+            }
+            do {
+                comparison(iv);
+            } while (pos < s.length() && s.charAt(pos) != ',');
+            return iv;
+        }
+
+        /** Intersects {@code iv} with one {@code op num}. */
+        private void comparison(double[] iv) {
+            if (startsWith(">=")) {
+                pos += 2;
+                lower(iv, number(), true);
+            } else if (startsWith("<=")) {
+                pos += 2;
+                upper(iv, number(), true);
+            } else if (startsWith(">")) {
+                pos++;
+                lower(iv, number(), false);
+            } else if (startsWith("<")) {
+                pos++;
+                upper(iv, number(), false);
+            } else if (startsWith("=")) {
+                pos++;
+                double v = number();
+                lower(iv, v, true);
+                upper(iv, v, true);
+            } else {
+                throw invalid();
+            }
+        }
+
+        private static void lower(double[] iv, double v, boolean inclusive) {
+            if (v > iv[0] || (v == iv[0] && !inclusive)) {
+                iv[0] = v;
+                iv[2] = inclusive ? 1 : 0;
+            }
+        }
+
+        private static void upper(double[] iv, double v, boolean inclusive) {
+            if (v < iv[1] || (v == iv[1] && !inclusive)) {
+                iv[1] = v;
+                iv[3] = inclusive ? 1 : 0;
+            }
+        }
+
+        boolean comma() {
+            if (pos == s.length()) {
+                return false;
+            }
+            if (s.charAt(pos) != ',' || pos + 1 == s.length()) {
+                throw invalid();
+            }
+            pos++;
+            return true;
+        }
+
+        /** Optional sign, digits, optional fraction; a dot followed by another dot ends the number. */
+        private double number() {
+            int start = pos;
+            if (pos < s.length() && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+                pos++;
+            }
+            int digits = 0;
+            while (pos < s.length() && isDigit(s.charAt(pos))) {
+                pos++;
+                digits++;
+            }
+            if (pos < s.length() && s.charAt(pos) == '.' && !startsWith("..")) {
+                pos++;
+                while (pos < s.length() && isDigit(s.charAt(pos))) {
+                    pos++;
+                    digits++;
+                }
+            }
+            if (digits == 0) {
+                throw invalid();
+            }
+            double v = Double.parseDouble(s.substring(start, pos));
+            if (Double.isInfinite(v)) {
+                throw invalid();
+            }
+            return v;
+        }
+
+        /** ASCII only: {@link Character#isDigit} also admits digits that {@link Double#parseDouble} rejects. */
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private boolean isNumberStart(char c) {
+            return isDigit(c) || c == '-' || c == '+' || c == '.';
+        }
+
+        private boolean startsWith(String token) {
+            return s.startsWith(token, pos);
+        }
+
+        private InvalidSearchParameterException invalid() {
+            return new InvalidSearchParameterException("Invalid filter expression: " + expr);
+        }
+    }
+}
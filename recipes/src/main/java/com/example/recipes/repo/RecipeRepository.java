@@ -11,12 +11,9 @@ import com.example.recipes.entity.Recipe;
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     
-    @Query("SELECT r.cuisine, COUNT(r) FROM Recipe r WHERE r.cuisine IS NOT NULL GROUP BY r.cuisine ORDER BY COUNT(r) DESC")
-    List<Object[]> countByCuisine();
-    
-    @Query("SELECT AVG(r.rating) FROM Recipe r WHERE r.rating IS NOT NULL")
-    Double getAverageRating();
-    
-    @Query("SELECT AVG(r.total_time) FROM Recipe r WHERE r.total_time IS NOT NULL")
-    Double getAverageTotalTime();
+    @Query("SELECT r.id, r.title FROM Recipe r")
+    List<Object[]> findAllTitles();
+
+    @Query("SELECT r.title, r.cuisine, r.rating FROM Recipe r")
+    List<Object[]> findSuggestionFields();
 }
@@ -2,15 +2,41 @@ package com.example.recipes.repo;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import com.example.recipes.config.DataSourceRouting;
+import com.example.recipes.config.FacetProperties;
+import com.example.recipes.dto.RecipeSummaryDto;
 import com.example.recipes.entity.Recipe;
+import com.example.recipes.search.InMemoryRecipeSearchEngine;
+import com.example.recipes.search.IngredientIndex;
+import com.example.recipes.search.IngredientQuery;
+import com.example.recipes.search.IngredientSearchIndex;
+import com.example.recipes.search.RecipeColumns;
+import com.example.recipes.search.RoaringIds;
+import com.example.recipes.search.TitleTrigramIndex;
+import com.example.recipes.util.Futures;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
 
 @Repository
 public class RecipeSearchRepository {
@@ -18,104 +44,559 @@ public class RecipeSearchRepository {
     @PersistenceContext
     private EntityManager em;
 
+    @Autowired(required = false)
+    private InMemoryRecipeSearchEngine memoryEngine;
+
+    @Autowired(required = false)
+    private TitleTrigramIndex titleIndex;
+
+    @Autowired(required = false)
+    private IngredientSearchIndex ingredientIndex;
+
+    @Autowired
+    private CuisineDictionary cuisines;
+
+    @Autowired
+    private SearchCountCache countCache;
+
+    @Autowired
+    private ExecutorService queryExecutor;
+
+    @Autowired
+    private SearchMetrics metrics;
+
+    @Autowired
+    private FacetProperties facetProperties;
+
+    @Value("${recipes.search.parallel-queries:true}")
+    private boolean parallelQueries;
+
+    @Value("${recipes.search.max-in-list-ids:1000}")
+    private int maxInListIds;
+
+    public enum CountMode {
+        NONE, EXACT, CACHED, ESTIMATE;
+
+        public static CountMode parse(String value, CountMode fallback) {
+            if (value == null || value.isBlank()) {
+                return fallback;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidSearchParameterException("Invalid count mode: " + value);
+            }
+        }
+    }
+
     public static class SearchParams {
         public String title;          
         public String cuisine;        
         public String ratingExpr;     
         public String totalTimeExpr;  
         public String caloriesExpr;   
+        public String proteinExpr;
+        public String fatExpr;
+        public String carbohydratesExpr;
+        public String sodiumExpr;
+        /** Comma-separated ingredient terms; see {@link IngredientQuery}. */
+        public String ingredientsAll;
+        public String ingredientsAny;
+        public String ingredientsNone;
         public Integer page = 1;
         public Integer limit = 10;
+        public String cursor;
+        public CountMode count = CountMode.EXACT;
+        /** Select only {@link RecipeSummaryDto#COLUMNS} instead of hydrating full entities. */
+        public boolean summary;
+        /** Facets to count over all matching rows, from {@link SearchFacets#parse}; {@code null} for none. */
+        public List<String> facets;
+
+        /** Normalized filters, paging and shape; two params with the same key get the same response. */
+        public String cacheKey() {
+            int pg = (page == null || page < 1) ? 1 : page;
+            int lim = (limit == null || limit < 1) ? 10 : limit;
+            return filterKey() + "|" + pg + "|" + lim + "|" + (cursor == null ? "" : cursor.trim()) + "|" + count + "|" + summary
+                    + "|" + (facets == null ? "" : String.join(",", facets));
+        }
+
+        /** {@code fields=summary} (the default) or {@code fields=full}. */
+        public static boolean isSummary(String fields) {
+            if (fields == null || fields.isBlank() || fields.equalsIgnoreCase("summary")) {
+                return true;
+            }
+            if (fields.equalsIgnoreCase("full")) {
+                return false;
+            }
+            throw new InvalidSearchParameterException("Invalid fields: " + fields);
+        }
+
+        /** Normalized filters only; two params with the same key match the same rows. */
+        public String filterKey() {
+            return String.join("|", norm(title), norm(cuisine), expr(ratingExpr), expr(totalTimeExpr), expr(caloriesExpr),
+                    expr(proteinExpr), expr(fatExpr), expr(carbohydratesExpr), expr(sodiumExpr),
+                    norm(ingredientsAll), norm(ingredientsAny), norm(ingredientsNone));
+        }
+
+        private static String norm(String s) {
+            return s == null || s.isBlank() ? "" : s.trim().toLowerCase(Locale.ROOT);
+        }
+
+        private static String expr(String s) {
+            return s == null || s.isBlank() ? "" : s.replaceAll("\\s+", "");
+        }
     }
 
     public static class PagedResult {
-        public long total;
+        /** {@code null} when the caller asked for no count. */
+        public Long total;
+        public boolean estimated;
+        public boolean hasMore;
+        /** Page rows; exactly one of these is set, depending on {@link SearchParams#summary}. */
         public List<Recipe> data;
+        public List<RecipeSummaryDto> summaries;
+        public String next;
+        /** Facet name to bucket to count, when {@link SearchParams#facets} asked for any. */
+        public Map<String, Map<String, Long>> facets;
     }
 
     public PagedResult search(SearchParams p) {
-        StringBuilder sql = new StringBuilder("FROM recipes r WHERE 1=1 ");
-        Map<String, Object> params = new HashMap<>();
+        long start = System.nanoTime();
+        SearchFacets facets = SearchFacets.of(p.facets, facetProperties);
+        RecipeColumns columns = memoryEngine != null ? memoryEngine.snapshot() : null;
+        if (columns != null) {
+            PagedResult pr = columns.search(p, facets);
+            metrics.search(p, true, start, -1, pr.summaries != null ? pr.summaries.size() : pr.data.size(), pr.total);
+            return pr;
+        }
 
-        if (p.title != null && !p.title.isBlank()) {
-            sql.append("AND LOWER(r.title) LIKE :title ");
-            params.put("title", "%" + p.title.toLowerCase() + "%");
+        SearchCursor after = SearchCursor.decode(p.cursor);
+        Filter filter = filter(p, titleIndex, ingredientIndex, cuisines, maxInListIds);
+        metrics.phase(SearchMetrics.Phase.FILTER, p.summary, start);
+        if (filter.empty) {
+            metrics.search(p, false, start, 0, 0, 0L);
+            PagedResult pr = empty();
+            pr.facets = facets != null ? facets.empty() : null;
+            return pr;
         }
-        if (p.cuisine != null && !p.cuisine.isBlank()) {
-            sql.append("AND LOWER(r.cuisine) = :cuisine ");
-            params.put("cuisine", p.cuisine.toLowerCase());
+        StringBuilder sql = filter.sql;
+        Map<String, Object> params = filter.params;
+
+        CountMode mode = p.count != null ? p.count : CountMode.EXACT;
+        CompletableFuture<Long> total = startCount(mode, p, sql.toString(), params);
+        CompletableFuture<Map<String, Map<String, Long>>> facetCounts = facets != null
+                ? start(() -> facets(facets, sql.toString(), params, p.summary))
+                : CompletableFuture.completedFuture(null);
+
+        // Seek past the cursor on ([matches DESC,] rating DESC, id ASC); MySQL sorts NULL ratings last
+        String rank = filter.rank;
+        if (rank != null && after != null && after.matches == null) {
+            throw new InvalidSearchParameterException("Invalid cursor: " + p.cursor);
         }
-        if (p.ratingExpr != null && !p.ratingExpr.isBlank()) {
-            var opVal = parseOpVal(p.ratingExpr);
-            if (opVal != null) {
-                sql.append("AND r.rating ").append(opVal.op).append(" :rating ");
-                params.put("rating", opVal.value);
+        StringBuilder seek = new StringBuilder();
+        if (after != null) {
+            String ratingSeek = after.rating != null
+                    ? "(r.rating < :cRating OR (r.rating = :cRating AND r.id > :cId) OR r.rating IS NULL)"
+                    : "(r.rating IS NULL AND r.id > :cId)";
+            if (rank != null) {
+                seek.append("AND (").append(rank).append(" < :cMatches OR (").append(rank).append(" = :cMatches AND ")
+                        .append(ratingSeek).append(")) ");
+            } else {
+                seek.append("AND ").append(ratingSeek).append(" ");
             }
         }
-        if (p.totalTimeExpr != null && !p.totalTimeExpr.isBlank()) {
-            var opVal = parseOpVal(p.totalTimeExpr);
-            if (opVal != null) {
-                sql.append("AND r.total_time ").append(opVal.op).append(" :tt ");
-                params.put("tt", opVal.value.intValue());
+
+        String order = rank != null ? " ORDER BY " + rank + " DESC, r.rating DESC, r.id ASC " : " ORDER BY r.rating DESC, r.id ASC ";
+        Query dataQ = p.summary
+                ? em.createNativeQuery("SELECT " + RecipeSummaryDto.COLUMNS + " " + sql + seek + order)
+                : em.createNativeQuery("SELECT r.* " + sql + seek + order, Recipe.class);
+        params.forEach(dataQ::setParameter);
+        filter.rankParams.forEach(dataQ::setParameter);
+        if (after != null) {
+            if (after.rating != null) {
+                dataQ.setParameter("cRating", after.rating);
             }
-        }
-        if (p.caloriesExpr != null && !p.caloriesExpr.isBlank()) {
-            var opVal = parseOpVal(p.caloriesExpr);
-            if (opVal != null) {
-                sql.append("AND r.calories_num ").append(opVal.op).append(" :cal ");
-                params.put("cal", opVal.value.intValue());
+            dataQ.setParameter("cId", after.id);
+            if (rank != null) {
+                dataQ.setParameter("cMatches", after.matches);
             }
         }
 
-        // Count
-        Query countQ = em.createNativeQuery("SELECT COUNT(*) " + sql);
-        params.forEach(countQ::setParameter);
-        Number total = ((Number) countQ.getSingleResult());
-
-        String select = "SELECT r.* ";
-        String order = " ORDER BY r.rating DESC, r.id ASC ";
-        Query dataQ = em.createNativeQuery(select + sql + order, Recipe.class);
-        params.forEach(dataQ::setParameter);
-
         int page = (p.page == null || p.page < 1) ? 1 : p.page;
         int limit = (p.limit == null || p.limit < 1) ? 10 : p.limit;
-        int offset = (page - 1) * limit;
-        dataQ.setFirstResult(offset);
-        dataQ.setMaxResults(limit);
+        if (after == null) {
+            dataQ.setFirstResult((page - 1) * limit);
+        }
+        // One extra row tells whether a next page exists
+        dataQ.setMaxResults(limit + 1);
+
+        long dataStart = System.nanoTime();
+        List<?> rows = dataQ.getResultList();
+        metrics.phase(SearchMetrics.Phase.DATA, p.summary, dataStart);
 
         PagedResult pr = new PagedResult();
-        pr.total = total.longValue();
-        pr.data = dataQ.getResultList();
+        pr.hasMore = rows.size() > limit;
+        List<?> pageRows = pr.hasMore ? rows.subList(0, limit) : rows;
+        SearchCursor last;
+        if (p.summary) {
+            pr.summaries = pageRows.stream().map(row -> RecipeSummaryDto.fromRow((Object[]) row)).toList();
+            last = pr.hasMore ? SearchCursor.after(pr.summaries.get(limit - 1)) : null;
+        } else {
+            @SuppressWarnings("unchecked")
+            List<Recipe> recipes = (List<Recipe>) pageRows;
+            pr.data = recipes;
+            last = pr.hasMore ? SearchCursor.after(recipes.get(limit - 1)) : null;
+        }
+        if (last != null && rank != null) {
+            last = last.ranked(filter.ingredients.matches((int) last.id));
+        }
+        pr.next = last != null ? last.encode() : null;
+        pr.total = Futures.join(total);
+        pr.facets = Futures.join(facetCounts);
+        if (mode == CountMode.ESTIMATE) {
+            // Rows already paged past plus the probe row are a floor for the planner's guess;
+            // on a non-empty last page reached by offset they are the exact total
+            long seen = (after == null ? (long) (page - 1) * limit : 0) + pageRows.size() + (pr.hasMore ? 1 : 0);
+            if (!pr.hasMore && after == null && (page == 1 || !pageRows.isEmpty())) {
+                pr.total = seen;
+            } else {
+                long estimateStart = System.nanoTime();
+                pr.total = Math.max(seen, estimate(sql, params));
+                metrics.phase(SearchMetrics.Phase.ESTIMATE, p.summary, estimateStart);
+                pr.estimated = true;
+            }
+        }
+        // Without a cursor MySQL walks the skipped offset rows as well
+        long scanned = (after == null ? (long) (page - 1) * limit : 0) + rows.size();
+        metrics.search(p, false, start, scanned, pageRows.size(), pr.total);
         return pr;
     }
 
-    private static class OpVal { String op; Double value; }
-    private static OpVal parseOpVal(String expr) {
-        String s = expr.trim().replaceAll("\\s+", "");
-        String[] ops = {">=", "<=", ">", "<", "="};
-        for (String op : ops) {
-            if (s.startsWith(op)) {
-                String num = s.substring(op.length());
-                try {
-                    double v = Double.parseDouble(num);
-                    OpVal ov = new OpVal();
-                    ov.op = op;
-                    ov.value = v;
-                    return ov;
-                } catch (NumberFormatException e) {
-                    return null;
+    /**
+     * Feeds the {@code columns} of every recipe matching {@code p}'s filters to {@code sink},
+     * in id order, through a forward-only cursor. Rows are scalar, so nothing accumulates in the
+     * persistence context; the array passed to the sink is only valid during the call.
+     * Paging, cursor and count settings are ignored. Must run inside a transaction.
+     */
+    public long scroll(SearchParams p, String columns, int fetchSize, Consumer<Object[]> sink) {
+        Filter filter = filter(p, titleIndex, ingredientIndex, cuisines, maxInListIds);
+        if (filter.empty) {
+            return 0;
+        }
+        Query q = em.createNativeQuery("SELECT " + columns + " " + filter.sql + "ORDER BY r.id");
+        filter.params.forEach(q::setParameter);
+        q.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        long n = 0;
+        try (ScrollableResults<?> rows = q.unwrap(NativeQuery.class).scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                sink.accept((Object[]) rows.get());
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** WHERE clause and bind values for a search's filters, shared by the count and page queries. */
+    static final class Filter {
+        final StringBuilder sql = new StringBuilder("FROM recipes r WHERE 1=1 ");
+        final Map<String, Object> params = new HashMap<>();
+        /** Set when the title or ingredient index already proves that nothing matches. */
+        boolean empty;
+        /** Number of any-of ingredient terms a row matches, for searches ranked by it; else {@code null}. */
+        String rank;
+        /** Bind values of {@link #rank}, which only the page query uses. */
+        final Map<String, Object> rankParams = new HashMap<>();
+        IngredientIndex.Match ingredients;
+    }
+
+    /**
+     * Filters of {@code p}. Ids found by the indexes are bound as an {@code IN} list of at most
+     * {@code maxIds} values; a broader match falls back to the predicate the index stands in for,
+     * which scans anyway once a large part of the table qualifies.
+     */
+    static Filter filter(SearchParams p, TitleTrigramIndex titleIndex, IngredientSearchIndex ingredientIndex,
+                         CuisineDictionary cuisines, int maxIds) {
+        Filter f = new Filter();
+        if (p.title != null && !p.title.isBlank()) {
+            long[] titleIds = titleIndex != null ? titleIndex.findIds(p.title) : null;
+            if (titleIds == null || titleIds.length > maxIds) {
+                // The column's accent-insensitive collation matches what the index folds away
+                f.sql.append("AND LOWER(r.title) LIKE :title ");
+                f.params.put("title", "%" + p.title.toLowerCase(Locale.ROOT) + "%");
+            } else if (titleIds.length == 0) {
+                f.empty = true;
+                return f;
+            } else {
+                f.sql.append("AND r.id IN (:titleIds) ");
+                f.params.put("titleIds", LongStream.of(titleIds).boxed().toList());
+            }
+        }
+        if (p.cuisine != null && !p.cuisine.isBlank()) {
+            if (cuisines == null) {
+                f.sql.append("AND LOWER(TRIM(r.cuisine)) = :cuisine ");
+                f.params.put("cuisine", CuisineDictionary.key(p.cuisine));
+            } else {
+                Integer cuisineId = cuisines.find(p.cuisine);
+                if (cuisineId == null) {
+                    f.empty = true;
+                    return f;
                 }
+                f.sql.append("AND r.cuisine_id = :cuisineId ");
+                f.params.put("cuisineId", cuisineId);
             }
         }
-   
+        IngredientQuery ingredients = IngredientQuery.of(p);
+        if (ingredients != null && !ingredients(f, ingredients, ingredientIndex, maxIds)) {
+            f.empty = true;
+            return f;
+        }
+        if (!range(f, RangeFilter.parse(p.ratingExpr, false), "r.rating", "rating")
+                || !range(f, RangeFilter.parse(p.totalTimeExpr, true), "r.total_time", "tt")
+                || !range(f, RangeFilter.parse(p.caloriesExpr, true), "r.calories_num", "cal")
+                || !range(f, RangeFilter.parse(p.proteinExpr, false), "r.protein_g", "prot")
+                || !range(f, RangeFilter.parse(p.fatExpr, false), "r.fat_g", "fat")
+                || !range(f, RangeFilter.parse(p.carbohydratesExpr, false), "r.carbohydrates_g", "carb")
+                || !range(f, RangeFilter.parse(p.sodiumExpr, true), "r.sodium_mg", "sod")) {
+            f.empty = true;
+        }
+        return f;
+    }
+
+    /**
+     * Adds the ingredient predicates; false when the postings prove that nothing matches. A set of
+     * postings larger than {@code maxIds} is replaced by the token scan it stands in for.
+     */
+    private static boolean ingredients(Filter f, IngredientQuery q, IngredientSearchIndex index, int maxIds) {
+        IngredientIndex.Match match = index != null ? index.match(q) : null;
+        if (match == null) {
+            // No postings: scan the tokens column, unranked
+            tokenScan(f, q.all, " AND ", "", "ingAll");
+            tokenScan(f, q.any, " OR ", "", "ingAny");
+            tokenScan(f, q.none, " OR ", "NOT ", "ingNone");
+            return true;
+        }
+        if (match.isEmpty()) {
+            return false;
+        }
+        if (match.include != null) {
+            if (match.include.cardinality() > maxIds) {
+                tokenScan(f, q.all, " AND ", "", "ingAll");
+                tokenScan(f, q.any, " OR ", "", "ingAny");
+                tokenScan(f, q.none, " OR ", "NOT ", "ingNone");
+            } else {
+                // Already without the none-of matches
+                f.sql.append("AND r.id IN (:ingIds) ");
+                f.params.put("ingIds", ids(match.include));
+            }
+        } else if (match.exclude.cardinality() > maxIds) {
+            tokenScan(f, q.none, " OR ", "NOT ", "ingNone");
+        } else if (!match.exclude.isEmpty()) {
+            f.sql.append("AND r.id NOT IN (:ingNone) ");
+            f.params.put("ingNone", ids(match.exclude));
+        }
+        if (match.tiers != null) {
+            int tiered = 0;
+            for (int k = 2; k < match.tiers.length; k++) {
+                tiered += match.tiers[k].cardinality();
+            }
+            if (tiered > maxIds) {
+                // Counts the any-of terms per row instead; the same count the tiers hold
+                StringBuilder rank = new StringBuilder("(");
+                for (int i = 0; i < q.any.size(); i++) {
+                    rank.append(i == 0 ? "" : " + ").append(term(f.rankParams, q.any.get(i), "ingRank" + i));
+                }
+                f.rank = rank.append(")").toString();
+            } else {
+                StringBuilder rank = new StringBuilder("(CASE");
+                for (int k = match.tiers.length - 1; k > 1; k--) {
+                    if (!match.tiers[k].isEmpty()) {
+                        rank.append(" WHEN r.id IN (:ingTier").append(k).append(") THEN ").append(k);
+                        f.rankParams.put("ingTier" + k, ids(match.tiers[k]));
+                    }
+                }
+                f.rank = rank.append(" ELSE 1 END)").toString();
+            }
+            f.ingredients = match;
+        }
+        return true;
+    }
+
+    /** {@code AND [NOT] (term OR|AND term ...)}, where a term matches when every one of its tokens is present. */
+    private static void tokenScan(Filter f, List<String[]> terms, String joiner, String not, String name) {
+        if (terms == null) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(i == 0 ? "" : joiner).append(term(f.params, terms.get(i), name + i));
+        }
+        f.sql.append("AND ").append(not).append("(").append(sql).append(") ");
+    }
+
+    /** {@code (token AND token ...)} over the tokens column, binding each token into {@code params}. */
+    private static String term(Map<String, Object> params, String[] tokens, String name) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int j = 0; j < tokens.length; j++) {
+            String param = name + "_" + j;
+            sql.append(j == 0 ? "" : " AND ").append("CONCAT(' ', COALESCE(r.ingredient_tokens, ''), ' ') LIKE :").append(param);
+            // Tokens are letters only, so there is nothing to escape
+            params.put(param, "% " + tokens[j] + " %");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static List<Long> ids(RoaringIds ids) {
+        return IntStream.of(ids.toArray()).mapToObj(id -> (long) id).toList();
+    }
+
+    /** Adds a numeric filter's predicate; false when the filter can match nothing. */
+    private static boolean range(Filter f, RangeFilter filter, String column, String name) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.isEmpty()) {
+            return false;
+        }
+        filter.appendSql(f.sql, f.params, column, name);
+        return true;
+    }
+
+    /** Runs the count next to the page query on a virtual thread when parallel queries are enabled. */
+    private CompletableFuture<Long> startCount(CountMode mode, SearchParams p, String where, Map<String, Object> params) {
+        Supplier<Long> counter;
+        if (mode == CountMode.EXACT) {
+            counter = () -> count(where, params, p.summary);
+        } else if (mode == CountMode.CACHED) {
+            counter = () -> countCache.get(p.filterKey(), () -> count(where, params, p.summary));
+        } else {
+            return CompletableFuture.completedFuture(null);
+        }
+        return start(counter);
+    }
+
+    private <T> CompletableFuture<T> start(Supplier<T> query) {
+        return parallelQueries
+                // The count reads from wherever the page query does
+                ? CompletableFuture.supplyAsync(DataSourceRouting.propagate(query), queryExecutor)
+                : CompletableFuture.completedFuture(query.get());
+    }
+
+    /**
+     * Every requested facet in one grouped pass over the matching rows: a row per cuisine
+     * (or a single row without the cuisine facet) carrying one conditional sum per bucket.
+     */
+    private Map<String, Map<String, Long>> facets(SearchFacets facets, String where, Map<String, Object> params, boolean summary) {
+        long start = System.nanoTime();
+        Map<String, Object> bind = new HashMap<>(params);
+        StringBuilder sql = new StringBuilder("SELECT ").append(facets.cuisine ? "r.cuisine_id" : "NULL").append(", COUNT(*)");
+        bucketSums(sql, bind, "r.rating", "fRating", facets.rating);
+        bucketSums(sql, bind, "r.total_time", "fTime", facets.totalTime);
+        bucketSums(sql, bind, "r.calories_num", "fCal", facets.calories);
+        sql.append(' ').append(where);
+        if (facets.cuisine) {
+            sql.append("GROUP BY r.cuisine_id");
+        }
+        Query q = em.createNativeQuery(sql.toString());
+        bind.forEach(q::setParameter);
+
+        Map<String, Long> byCuisine = new HashMap<>();
+        long[] rating = SearchFacets.counts(facets.rating);
+        long[] time = SearchFacets.counts(facets.totalTime);
+        long[] calories = SearchFacets.counts(facets.calories);
+        for (Object row : q.getResultList()) {
+            Object[] cols = (Object[]) row;
+            String name = cols[0] != null ? cuisines.name(((Number) cols[0]).intValue()) : null;
+            if (name != null && !name.isEmpty()) {
+                byCuisine.put(name, ((Number) cols[1]).longValue());
+            }
+            int c = addSums(cols, 2, rating);
+            c = addSums(cols, c, time);
+            addSums(cols, c, calories);
+        }
+        metrics.phase(SearchMetrics.Phase.FACETS, summary, start);
+        return facets.result(byCuisine, rating, time, calories);
+    }
+
+    /** {@code , SUM(col < :b0), SUM(col >= :b0 AND col < :b1), ..., SUM(col >= :bN)}; NULLs count nowhere. */
+    private static void bucketSums(StringBuilder sql, Map<String, Object> bind, String column, String name, double[] bounds) {
+        if (bounds == null) {
+            return;
+        }
+        for (int i = 0; i < bounds.length; i++) {
+            bind.put(name + i, bounds[i]);
+        }
+        for (int i = 0; i <= bounds.length; i++) {
+            sql.append(", SUM(");
+            if (i > 0) {
+                sql.append(column).append(" >= :").append(name).append(i - 1);
+            }
+            if (i < bounds.length) {
+                sql.append(i > 0 ? " AND " : "").append(column).append(" < :").append(name).append(i);
+            }
+            sql.append(')');
+        }
+    }
+
+    private static int addSums(Object[] cols, int from, long[] counts) {
+        if (counts == null) {
+            return from;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            Object sum = cols[from + i];
+            if (sum != null) {
+                counts[i] += ((Number) sum).longValue();
+            }
+        }
+        return from + counts.length;
+    }
+
+    private long count(CharSequence where, Map<String, Object> params, boolean summary) {
+        long start = System.nanoTime();
+        Query countQ = em.createNativeQuery("SELECT COUNT(*) " + where);
+        params.forEach(countQ::setParameter);
+        long total = ((Number) countQ.getSingleResult()).longValue();
+        metrics.phase(SearchMetrics.Phase.COUNT, summary, start);
+        return total;
+    }
+
+    /** Row estimate from the optimizer's index statistics; 0 when EXPLAIN is unavailable. */
+    /** A numeric EXPLAIN value, which some servers report as text; {@code null} when absent. */
+    private static Double planValue(Object value) {
+        if (value instanceof Number n) {
+            return n.doubleValue();
+        }
+        return value != null ? Double.valueOf(value.toString().trim()) : null;
+    }
+
+    private long estimate(CharSequence where, Map<String, Object> params) {
         try {
-            double v = Double.parseDouble(s);
-            OpVal ov = new OpVal();
-            ov.op = "=";
-            ov.value = v;
-            return ov;
-        } catch (NumberFormatException e) {
-            return null;
+            Query explainQ = em.createNativeQuery("EXPLAIN SELECT r.id " + where, Tuple.class);
+            params.forEach(explainQ::setParameter);
+            Tuple plan = (Tuple) explainQ.getResultList().get(0);
+            // Columns by label: their positions differ across MySQL versions, and MariaDB has no filtered
+            Double rows = null;
+            Double filtered = null;
+            for (TupleElement<?> column : plan.getElements()) {
+                if ("rows".equalsIgnoreCase(column.getAlias())) {
+                    rows = planValue(plan.get(column));
+                } else if ("filtered".equalsIgnoreCase(column.getAlias())) {
+                    filtered = planValue(plan.get(column));
+                }
+            }
+            if (rows == null) {
+                return 0;
+            }
+            return Math.round(rows * (filtered != null ? filtered : 100.0) / 100.0);
+        } catch (RuntimeException e) {
+            return 0;
         }
     }
+
+    private static PagedResult empty() {
+        PagedResult pr = new PagedResult();
+        pr.total = 0L;
+        pr.data = List.of();
+        pr.summaries = List.of();
+        return pr;
+    }
 }
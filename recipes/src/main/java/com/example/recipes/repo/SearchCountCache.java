@@ -0,0 +1,27 @@
+package com.example.recipes.repo;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.config.AppConfig;
+
+/**
+ * Exact search totals keyed by {@link RecipeSearchRepository.SearchParams#filterKey()},
+ * held in the bounded {@value AppConfig#RECIPE_COUNTS} cache region, which imports clear.
+ */
+@Component
+public class SearchCountCache {
+
+    private final Cache counts;
+
+    public SearchCountCache(CacheManager cacheManager) {
+        this.counts = cacheManager.getCache(AppConfig.RECIPE_COUNTS);
+    }
+
+    public long get(String filterKey, LongSupplier counter) {
+        return counts.get(filterKey, counter::getAsLong);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.recipes.repo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.recipes.dto.RecipeSummaryDto;
+import com.example.recipes.entity.Recipe;
+
+/**
+ * Opaque keyset position on the search sort key {@code (rating DESC, id ASC)}, led by the
+ * number of ingredient terms matched for searches ranked by them.
+ * A page that starts after a cursor seeks straight to the next row instead of
+ * skipping an offset, so its cost does not grow with depth.
+ */
+public final class SearchCursor {
+
+    /** {@code null} when the last row had no rating; such rows sort last. */
+    public final Double rating;
+    public final long id;
+    /** Ingredient terms the last row matched; {@code null} unless the search is ranked by them. */
+    public final Integer matches;
+
+    public SearchCursor(Double rating, long id) {
+        this(rating, id, null);
+    }
+
+    public SearchCursor(Double rating, long id, Integer matches) {
+        this.rating = rating;
+        this.id = id;
+        this.matches = matches;
+    }
+
+    /** This position within the rows that match {@code matches} ingredient terms. */
+    public SearchCursor ranked(int matches) {
+        return new SearchCursor(rating, id, matches);
+    }
+
+    public static SearchCursor after(Recipe last) {
+        return new SearchCursor(last.getRating(), last.getId());
+    }
+
+    public static SearchCursor after(RecipeSummaryDto last) {
+        return new SearchCursor(last.getRating(), last.getId());
+    }
+
+    public String encode() {
+        String raw = (rating != null ? rating.toString() : "") + ":" + id + (matches != null ? ":" + matches : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns {@code null} for a blank token. */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", -1);
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException();
+            }
+            Double rating = parts[0].isEmpty() ? null : Double.valueOf(parts[0]);
+            if (rating != null && !Double.isFinite(rating)) {
+                throw new IllegalArgumentException();
+            }
+            return new SearchCursor(rating, Long.parseLong(parts[1]), parts.length == 3 ? Integer.valueOf(parts[2]) : null);
+        } catch (RuntimeException e) {
+            throw new InvalidSearchParameterException("Invalid cursor: " + token);
+        }
+    }
+}
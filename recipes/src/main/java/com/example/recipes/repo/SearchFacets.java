@@ -0,0 +1,134 @@
+package com.example.recipes.repo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.recipes.config.FacetProperties;
+
+/**
+ * The facets requested with a search and their bucket boundaries. Numeric buckets are
+ * half-open, {@code [b(i), b(i+1))}, with one open bucket at each end; each bucket is
+ * labelled with the filter expression that selects it, e.g. {@code >=4<4.5}, so a client
+ * can pass the label back as the filter. Rows without a value are not counted.
+ */
+public final class SearchFacets {
+
+    public static final String CUISINE = "cuisine";
+    public static final String RATING = "rating";
+    public static final String TOTAL_TIME = "total_time";
+    public static final String CALORIES = "calories";
+    public static final List<String> NAMES = List.of(CUISINE, RATING, TOTAL_TIME, CALORIES);
+
+    public final boolean cuisine;
+    public final int cuisineLimit;
+    /** Sorted boundaries, or {@code null} when the facet was not requested. */
+    public final double[] rating;
+    public final double[] totalTime;
+    public final double[] calories;
+
+    private SearchFacets(List<String> names, FacetProperties properties) {
+        cuisine = names.contains(CUISINE);
+        cuisineLimit = properties.getCuisineLimit();
+        rating = names.contains(RATING) ? bounds(properties.getRating()) : null;
+        totalTime = names.contains(TOTAL_TIME) ? bounds(properties.getTotalTime()) : null;
+        calories = names.contains(CALORIES) ? bounds(properties.getCalories()) : null;
+    }
+
+    /** The facets in {@link RecipeSearchRepository.SearchParams#facets}, or {@code null} for none. */
+    public static SearchFacets of(List<String> names, FacetProperties properties) {
+        return names == null || names.isEmpty() ? null : new SearchFacets(names, properties);
+    }
+
+    /**
+     * Parses a {@code facets=cuisine,rating} parameter into known names in {@link #NAMES} order.
+     *
+     * @throws InvalidSearchParameterException for an unknown facet
+     */
+    public static List<String> parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        List<String> requested = new ArrayList<>();
+        for (String name : value.split(",")) {
+            String n = name.trim().toLowerCase();
+            if (!NAMES.contains(n)) {
+                throw new InvalidSearchParameterException("Invalid facet: " + name.trim());
+            }
+            requested.add(n);
+        }
+        return NAMES.stream().filter(requested::contains).toList();
+    }
+
+    private static double[] bounds(List<Double> values) {
+        return values.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+    }
+
+    /** Index of the bucket holding {@code v}: the number of boundaries at or below it. */
+    public static int bucket(double[] bounds, double v) {
+        int i = Arrays.binarySearch(bounds, v);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    /**
+     * Assembles the response value: facet name to bucket label (or cuisine) to count,
+     * cuisines by descending count and capped at {@link #cuisineLimit}.
+     */
+    public Map<String, Map<String, Long>> result(Map<String, Long> cuisines, long[] ratingCounts,
+            long[] totalTimeCounts, long[] caloriesCounts) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        if (cuisine) {
+            Map<String, Long> top = new LinkedHashMap<>();
+            cuisines.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(cuisineLimit)
+                    .forEach(e -> top.put(e.getKey(), e.getValue()));
+            facets.put(CUISINE, top);
+        }
+        if (rating != null) {
+            facets.put(RATING, buckets(rating, ratingCounts));
+        }
+        if (totalTime != null) {
+            facets.put(TOTAL_TIME, buckets(totalTime, totalTimeCounts));
+        }
+        if (calories != null) {
+            facets.put(CALORIES, buckets(calories, caloriesCounts));
+        }
+        return facets;
+    }
+
+    /** Every requested facet with zero counts, for searches that cannot match anything. */
+    public Map<String, Map<String, Long>> empty() {
+        return result(Map.of(), counts(rating), counts(totalTime), counts(calories));
+    }
+
+    /** A zeroed counter per bucket, or {@code null} when the facet was not requested. */
+    public static long[] counts(double[] bounds) {
+        return bounds != null ? new long[bounds.length + 1] : null;
+    }
+
+    private static Map<String, Long> buckets(double[] bounds, long[] counts) {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i <= bounds.length; i++) {
+            buckets.put(label(bounds, i), counts[i]);
+        }
+        return buckets;
+    }
+
+    static String label(double[] bounds, int i) {
+        if (i == 0) {
+            return "<" + number(bounds[0]);
+        }
+        if (i == bounds.length) {
+            return ">=" + number(bounds[i - 1]);
+        }
+        return ">=" + number(bounds[i - 1]) + "<" + number(bounds[i]);
+    }
+
+    private static String number(double v) {
+        return BigDecimal.valueOf(v).stripTrailingZeros().toPlainString();
+    }
+}
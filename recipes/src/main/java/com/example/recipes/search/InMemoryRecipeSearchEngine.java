@@ -0,0 +1,130 @@
+package com.example.recipes.search;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.util.DatasetVersion;
+import com.example.recipes.util.DatasetVersionChangedEvent;
+import com.example.recipes.util.RecipesImportedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Serves searches from a {@link RecipeColumns} snapshot of the recipes table.
+ * Enabled with {@code recipes.search.engine=memory}; until the first snapshot
+ * is built, {@code RecipeSearchRepository} keeps answering from SQL. A snapshot of the current
+ * dataset version in {@link SearchSnapshotStore} is mapped at startup instead of scanning the
+ * table. Either way only the columns stay in memory; full rows for a page are read by id.
+ * Builds stream the indexed columns off a forward-only cursor rather than loading entities.
+ */
+@Component
+@ConditionalOnProperty(name = "recipes.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryRecipeSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryRecipeSearchEngine.class);
+
+    private static final String SNAPSHOT = "recipe-columns";
+
+    private static final String COLUMNS = "SELECT id, title, cuisine, rating, total_time, calories_num, protein_g, fat_g, "
+            + "carbohydrates_g, sodium_mg, serves, ingredient_tokens FROM recipes";
+
+    private final RecipeRepository recipeRepository;
+    private final SearchSnapshotStore snapshots;
+    private final DatasetVersion datasetVersion;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile RecipeColumns columns;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        SnapshotFile file = snapshots.open(SNAPSHOT);
+        if (file != null) {
+            try {
+                columns = RecipeColumns.read(file, this::findAllInOrder);
+                logger.info("Mapped in-memory search index of dataset version {} over {} recipes in {} ms",
+                        file.version(), columns.size(), (System.nanoTime() - start) / 1_000_000);
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Rebuilding in-memory search index, snapshot is unusable: {}", e.getMessage());
+            }
+        }
+        rebuild();
+        if (columns != null) {
+            save(datasetVersion.current());
+        }
+    }
+
+    public void rebuild() {
+        try {
+            long start = System.nanoTime();
+            List<RecipeColumns.Row> rows = new ArrayList<>();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(COLUMNS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(Integer.MIN_VALUE);
+                return ps;
+            }, (RowCallbackHandler) rs -> rows.add(row(rs)));
+            columns = RecipeColumns.build(rows, this::findAllInOrder);
+            logger.info("Built in-memory search index over {} recipes in {} ms",
+                    rows.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build in-memory search index: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener(RecipesImportedEvent.class)
+    public void onImport() {
+        if (columns != null) {
+            rebuild();
+        }
+    }
+
+    @EventListener
+    public void onVersionChanged(DatasetVersionChangedEvent event) {
+        if (columns != null) {
+            save(event.getVersion());
+        }
+    }
+
+    private void save(DatasetVersion.Snapshot version) {
+        snapshots.save(SNAPSHOT, version, columns::write);
+    }
+
+    private static RecipeColumns.Row row(ResultSet rs) throws SQLException {
+        return new RecipeColumns.Row(rs.getLong("id"), rs.getString("title"), rs.getString("cuisine"),
+                rs.getObject("rating", Double.class), rs.getObject("total_time", Integer.class),
+                rs.getObject("calories_num", Integer.class), rs.getObject("protein_g", Double.class),
+                rs.getObject("fat_g", Double.class), rs.getObject("carbohydrates_g", Double.class),
+                rs.getObject("sodium_mg", Integer.class), rs.getString("serves"), rs.getString("ingredient_tokens"));
+    }
+
+    private List<Recipe> findAllInOrder(List<Long> ids) {
+        Map<Long, Recipe> byId = new HashMap<>();
+        recipeRepository.findAllById(ids).forEach(r -> byId.put(r.getId(), r));
+        // A row deleted since the snapshot was taken is left out of the page
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Current snapshot, or {@code null} while the index has not been built. */
+    public RecipeColumns snapshot() {
+        return columns;
+    }
+}
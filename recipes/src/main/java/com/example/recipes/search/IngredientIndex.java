@@ -0,0 +1,199 @@
+package com.example.recipes.search;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from {@link IngredientTokens} tokens to {@link RoaringIds} posting lists.
+ * Documents are ints chosen by the caller: recipe ids for the SQL path, row positions for
+ * {@link RecipeColumns}. Queries are answered with set operations on the postings alone.
+ * An index read from a {@link SnapshotFile} decodes the postings of a token on first use.
+ */
+public final class IngredientIndex {
+
+    /** Every posting list, or for a snapshot the ones decoded so far. */
+    private final Map<String, RoaringIds> postings;
+    /** Sorted tokens and the offsets of their serialized postings in {@link #lists}; snapshots only. */
+    private final StringColumn tokens;
+    private final IntBuffer starts;
+    private final ByteBuffer lists;
+
+    private IngredientIndex(Map<String, RoaringIds> postings) {
+        this.postings = postings;
+        this.tokens = null;
+        this.starts = null;
+        this.lists = null;
+    }
+
+    private IngredientIndex(StringColumn tokens, IntBuffer starts, ByteBuffer lists) {
+        this.postings = new ConcurrentHashMap<>();
+        this.tokens = tokens;
+        this.starts = starts;
+        this.lists = lists;
+    }
+
+    /** Indexes {@code tokens[i]}, a space-separated token list or {@code null}, under {@code docs[i]}; docs ascend. */
+    public static IngredientIndex build(int[] docs, String[] tokens) {
+        Map<String, RoaringIds.Builder> builders = new HashMap<>();
+        for (int i = 0; i < docs.length; i++) {
+            if (tokens[i] == null || tokens[i].isEmpty()) {
+                continue;
+            }
+            for (String token : tokens[i].split(" ")) {
+                builders.computeIfAbsent(token, t -> RoaringIds.builder()).add(docs[i]);
+            }
+        }
+        Map<String, RoaringIds> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((token, b) -> postings.put(token, b.build()));
+        return new IngredientIndex(postings);
+    }
+
+    /** An index over postings read back from storage. */
+    public static IngredientIndex of(Map<String, RoaringIds> postings) {
+        return new IngredientIndex(postings);
+    }
+
+    /** The index written by {@link #write} under {@code name}. */
+    public static IngredientIndex read(SnapshotFile file, String name) {
+        return new IngredientIndex(StringColumn.read(file, name + ".tokens"), file.ints(name + ".starts"),
+                file.bytes(name + ".lists"));
+    }
+
+    public void write(SnapshotFile.Writer out, String name) throws IOException {
+        String[] sorted = tokens != null ? tokens.toArray() : postings.keySet().stream().sorted().toArray(String[]::new);
+        int[] offsets = new int[sorted.length];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < sorted.length; i++) {
+            offsets[i] = bytes.size();
+            bytes.writeBytes(posting(sorted[i]).toBytes());
+        }
+        StringColumn.of(sorted).write(out, name + ".tokens");
+        out.ints(name + ".starts", IntBuffer.wrap(offsets)).bytes(name + ".lists", ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /** Every posting list by token; only for an index that was built, not read from a snapshot. */
+    public Map<String, RoaringIds> postings() {
+        return postings;
+    }
+
+    public int tokenCount() {
+        return tokens != null ? tokens.size() : postings.size();
+    }
+
+    /** The documents of a query, as far as postings can tell. */
+    public static final class Match {
+        /** Documents meeting the {@code all} and {@code any} terms; {@code null} when neither was given. */
+        public final RoaringIds include;
+        /** Documents matching a {@code none} term; {@code null} when none was given. */
+        public final RoaringIds exclude;
+        /** For a ranked query, {@code tiers[k]} holds the included documents matching exactly {@code k} any terms. */
+        public final RoaringIds[] tiers;
+
+        Match(RoaringIds include, RoaringIds exclude, RoaringIds[] tiers) {
+            this.include = include;
+            this.exclude = exclude;
+            this.tiers = tiers;
+        }
+
+        public boolean isEmpty() {
+            return include != null && include.isEmpty();
+        }
+
+        /** How many any terms {@code doc} matches, for a ranked query. */
+        public int matches(int doc) {
+            for (int k = tiers.length - 1; k > 0; k--) {
+                if (tiers[k].contains(doc)) {
+                    return k;
+                }
+            }
+            return 0;
+        }
+    }
+
+    public Match match(IngredientQuery q) {
+        RoaringIds include = null;
+        if (q.all != null) {
+            for (String[] term : q.all) {
+                RoaringIds docs = term(term);
+                include = include == null ? docs : include.and(docs);
+            }
+        }
+        RoaringIds[] anyDocs = null;
+        if (q.any != null) {
+            anyDocs = new RoaringIds[q.any.size()];
+            RoaringIds union = RoaringIds.EMPTY;
+            for (int i = 0; i < anyDocs.length; i++) {
+                anyDocs[i] = term(q.any.get(i));
+                union = union.or(anyDocs[i]);
+            }
+            include = include == null ? union : include.and(union);
+        }
+        RoaringIds exclude = null;
+        if (q.none != null) {
+            exclude = RoaringIds.EMPTY;
+            for (String[] term : q.none) {
+                exclude = exclude.or(term(term));
+            }
+            if (include != null) {
+                include = include.andNot(exclude);
+            }
+        }
+        return new Match(include, exclude, q.ranked() ? tiers(include, anyDocs) : null);
+    }
+
+    /** Documents having every token of {@code term}. */
+    private RoaringIds term(String[] term) {
+        RoaringIds docs = null;
+        for (String token : term) {
+            RoaringIds p = posting(token);
+            docs = docs == null ? p : docs.and(p);
+        }
+        return docs;
+    }
+
+    private RoaringIds posting(String token) {
+        if (tokens == null) {
+            return postings.getOrDefault(token, RoaringIds.EMPTY);
+        }
+        RoaringIds p = postings.get(token);
+        if (p == null) {
+            int i = tokens.indexOf(token);
+            if (i < 0) {
+                return RoaringIds.EMPTY;
+            }
+            byte[] bytes = new byte[(i + 1 < starts.limit() ? starts.get(i + 1) : lists.limit()) - starts.get(i)];
+            lists.get(starts.get(i), bytes);
+            p = RoaringIds.fromBytes(bytes);
+            postings.put(token, p);
+        }
+        return p;
+    }
+
+    private static RoaringIds[] tiers(RoaringIds include, RoaringIds[] anyDocs) {
+        int[] docs = include.toArray();
+        int[] counts = new int[docs.length];
+        for (RoaringIds term : anyDocs) {
+            for (int doc : term.and(include).toArray()) {
+                counts[Arrays.binarySearch(docs, doc)]++;
+            }
+        }
+        RoaringIds.Builder[] builders = new RoaringIds.Builder[anyDocs.length + 1];
+        for (int k = 0; k < builders.length; k++) {
+            builders[k] = RoaringIds.builder();
+        }
+        for (int i = 0; i < docs.length; i++) {
+            builders[counts[i]].add(docs[i]);
+        }
+        RoaringIds[] tiers = new RoaringIds[builders.length];
+        for (int k = 0; k < tiers.length; k++) {
+            tiers[k] = builders[k].build();
+        }
+        return tiers;
+    }
+}
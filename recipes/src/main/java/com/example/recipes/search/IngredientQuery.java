@@ -0,0 +1,42 @@
+package com.example.recipes.search;
+
+import java.util.List;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+
+/**
+ * The ingredient filters of a search: a recipe has to match every {@link #all} term, at least
+ * one {@link #any} term and no {@link #none} term, where matching a term means having every
+ * one of its tokens. With two or more {@code any} terms, results rank by how many they match.
+ */
+public final class IngredientQuery {
+
+    /** Each list is {@code null} when its parameter was not given. */
+    public final List<String[]> all;
+    public final List<String[]> any;
+    public final List<String[]> none;
+
+    private IngredientQuery(List<String[]> all, List<String[]> any, List<String[]> none) {
+        this.all = all;
+        this.any = any;
+        this.none = none;
+    }
+
+    /**
+     * The ingredient filters of {@code p}, or {@code null} when it has none.
+     *
+     * @throws InvalidSearchParameterException for a term without a single indexable word
+     */
+    public static IngredientQuery of(SearchParams p) {
+        List<String[]> all = IngredientTokens.terms(p.ingredientsAll);
+        List<String[]> any = IngredientTokens.terms(p.ingredientsAny);
+        List<String[]> none = IngredientTokens.terms(p.ingredientsNone);
+        return all == null && any == null && none == null ? null : new IngredientQuery(all, any, none);
+    }
+
+    /** Whether results order by the number of {@code any} terms matched before rating. */
+    public boolean ranked() {
+        return any != null && any.size() > 1;
+    }
+}
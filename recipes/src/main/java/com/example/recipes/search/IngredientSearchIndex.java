@@ -0,0 +1,136 @@
+package com.example.recipes.search;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.util.RecipesImportedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link IngredientIndex} over recipe ids for the SQL search path. The postings are stored in
+ * {@code ingredient_postings} next to a fingerprint of the recipes table (row count and the
+ * XOR of ids and content hashes); a start whose fingerprint still matches reads them back
+ * instead of rebuilding. Rebuilds, at startup when stale and after every import, read the
+ * tokens the importer wrote to {@code recipes.ingredient_tokens}.
+ */
+@Component
+@ConditionalOnProperty(name = "recipes.search.ingredient-index", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class IngredientSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngredientSearchIndex.class);
+
+    private static final String FINGERPRINT = "SELECT COUNT(*), CAST(COALESCE(BIT_XOR(id), 0) AS SIGNED), "
+            + "CAST(COALESCE(BIT_XOR(content_hash), 0) AS SIGNED) FROM recipes";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile IngredientIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            long start = System.nanoTime();
+            long[] fingerprint = fingerprint();
+            List<long[]> stored = jdbcTemplate.query("SELECT recipes, id_xor, content_xor FROM ingredient_index_state WHERE id = 1",
+                    (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) });
+            if (stored.size() == 1 && Arrays.equals(stored.get(0), fingerprint)) {
+                Map<String, RoaringIds> postings = new HashMap<>();
+                jdbcTemplate.query("SELECT token, postings FROM ingredient_postings",
+                        (RowCallbackHandler) rs -> postings.put(rs.getString(1), RoaringIds.fromBytes(rs.getBytes(2))));
+                index = IngredientIndex.of(postings);
+                logger.info("Loaded ingredient index: {} tokens in {} ms", postings.size(), (System.nanoTime() - start) / 1_000_000);
+            } else {
+                rebuild(fingerprint);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to load ingredient index: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener(RecipesImportedEvent.class)
+    public void onImport() {
+        try {
+            rebuild(fingerprint());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild ingredient index: {}", e.getMessage(), e);
+        }
+    }
+
+    /** The postings match of {@code q} over recipe ids, or {@code null} when the caller has to fall back to SQL. */
+    public IngredientIndex.Match match(IngredientQuery q) {
+        IngredientIndex i = index;
+        return i != null ? i.match(q) : null;
+    }
+
+    private synchronized void rebuild(long[] fingerprint) {
+        long start = System.nanoTime();
+        List<Integer> ids = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        boolean[] overflow = new boolean[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, ingredient_tokens FROM recipes WHERE ingredient_tokens IS NOT NULL ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long id = rs.getLong(1);
+            if (id > Integer.MAX_VALUE) {
+                overflow[0] = true;
+                return;
+            }
+            ids.add((int) id);
+            tokens.add(rs.getString(2));
+        });
+        if (overflow[0]) {
+            // Posting lists hold 32-bit values; ingredient filters fall back to scanning the tokens column
+            logger.warn("Recipe ids exceed the ingredient index range; ingredient searches will scan");
+            index = null;
+            return;
+        }
+        IngredientIndex built = IngredientIndex.build(ids.stream().mapToInt(Integer::intValue).toArray(), tokens.toArray(new String[0]));
+        index = built;
+        persist(built, fingerprint);
+        logger.info("Built ingredient index: {} recipes, {} tokens in {} ms",
+                ids.size(), built.tokenCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** The state row goes last, so an interrupted write leaves no state and the next start rebuilds. */
+    private void persist(IngredientIndex built, long[] fingerprint) {
+        jdbcTemplate.update("DELETE FROM ingredient_index_state");
+        jdbcTemplate.update("DELETE FROM ingredient_postings");
+        List<Object[]> rows = new ArrayList<>(500);
+        for (Map.Entry<String, RoaringIds> e : built.postings().entrySet()) {
+            rows.add(new Object[] { e.getKey(), e.getValue().toBytes() });
+            if (rows.size() == 500) {
+                jdbcTemplate.batchUpdate("INSERT INTO ingredient_postings (token, postings) VALUES (?, ?)", rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO ingredient_postings (token, postings) VALUES (?, ?)", rows);
+        }
+        jdbcTemplate.update("INSERT INTO ingredient_index_state (id, recipes, id_xor, content_xor) VALUES (1, ?, ?, ?)",
+                fingerprint[0], fingerprint[1], fingerprint[2]);
+    }
+
+    private long[] fingerprint() {
+        return jdbcTemplate.queryForObject(FINGERPRINT, (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) });
+    }
+}
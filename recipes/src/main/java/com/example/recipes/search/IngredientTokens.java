@@ -0,0 +1,95 @@
+package com.example.recipes.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+
+/**
+ * Normalizes ingredient lines and query terms to the same tokens: lower-cased words without
+ * quantities, units or preparation notes, reduced to a crude singular, so that
+ * "2 cups chopped Pecans" and the query "pecan" meet at {@code pecan}. The singular only has
+ * to be consistent, not correct: "cookies" becomes {@code cooky} on both sides.
+ */
+public final class IngredientTokens {
+
+    /** Longer words are not indexed; matches the {@code ingredient_postings.token} column. */
+    static final int MAX_LENGTH = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "or", "of", "for", "the", "to", "in", "into", "with", "about", "plus", "more", "as",
+            "each", "at", "room", "temperature", "taste", "needed", "optional", "divided", "cut", "inch", "inches",
+            "cup", "cups", "c", "tablespoon", "tablespoons", "tbsp", "tbs", "teaspoon", "teaspoons", "tsp",
+            "ounce", "ounces", "oz", "pound", "pounds", "lb", "lbs", "gram", "grams", "g", "kg", "ml", "l",
+            "liter", "liters", "quart", "quarts", "pint", "pints", "pinch", "dash", "can", "cans", "package",
+            "packages", "pkg", "jar", "bottle", "stick", "sticks", "slice", "slices", "piece", "pieces",
+            "large", "small", "medium", "fresh", "freshly", "chopped", "minced", "diced", "sliced", "grated",
+            "shredded", "finely", "coarsely", "thinly", "softened", "melted", "peeled", "seeded", "beaten",
+            "packed", "lightly");
+
+    private IngredientTokens() {
+    }
+
+    /** The distinct tokens of every line, sorted and space-separated, or {@code null} when there are none. */
+    public static String of(Iterable<?> lines) {
+        Set<String> tokens = new TreeSet<>();
+        for (Object line : lines) {
+            if (line != null) {
+                tokens.addAll(words(line.toString()));
+            }
+        }
+        return tokens.isEmpty() ? null : String.join(" ", tokens);
+    }
+
+    /**
+     * Parses a comma-separated {@code ingredients_*} parameter into terms, each the tokens a
+     * recipe needs to match it; {@code null} for a blank parameter.
+     *
+     * @throws InvalidSearchParameterException for a term without a single indexable word
+     */
+    public static List<String[]> terms(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        List<String[]> terms = new ArrayList<>();
+        for (String term : value.split(",")) {
+            if (term.isBlank()) {
+                continue;
+            }
+            Set<String> words = words(term);
+            if (words.isEmpty()) {
+                throw new InvalidSearchParameterException("Invalid ingredient: " + term.trim());
+            }
+            terms.add(words.toArray(new String[0]));
+        }
+        return terms.isEmpty() ? null : terms;
+    }
+
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}]+")) {
+            if (word.length() > 1 && word.length() <= MAX_LENGTH && !STOP_WORDS.contains(word)) {
+                words.add(singular(word));
+            }
+        }
+        return words;
+    }
+
+    static String singular(String word) {
+        int n = word.length();
+        if (n > 4 && word.endsWith("ies")) {
+            return word.substring(0, n - 3) + "y";
+        }
+        if (n > 4 && (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes")
+                || word.endsWith("sses") || word.endsWith("xes") || word.endsWith("zes"))) {
+            return word.substring(0, n - 2);
+        }
+        if (n > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, n - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,499 @@
+package com.example.recipes.search;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import com.example.recipes.dto.RecipeSummaryDto;
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.CuisineDictionary;
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeSearchRepository.CountMode;
+import com.example.recipes.repo.RangeFilter;
+import com.example.recipes.repo.RecipeSearchRepository.PagedResult;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+import com.example.recipes.repo.SearchFacets;
+import com.example.recipes.repo.SearchCursor;
+
+/**
+ * Immutable, column-oriented snapshot of the recipes table.
+ * Numeric filters scan primitive arrays, cuisine filters start from a posting bitset,
+ * ingredient filters intersect an {@link IngredientIndex} over row positions,
+ * and results are paged off a precomputed rating DESC / id ASC order.
+ * <p>
+ * Columns are NIO buffers, so a snapshot written with {@link #write} is searched straight from
+ * its mapping after {@link #read}. No snapshot holds entities: full rows for a page are loaded
+ * by id when asked for, summaries are assembled from the columns.
+ */
+public final class RecipeColumns {
+
+    static final int NULL_INT = Integer.MIN_VALUE;
+
+    private final int size;
+    private final LongBuffer ids;
+    private final DoubleBuffer rating;
+    private final IntBuffer totalTime;
+    private final IntBuffer calories;
+    private final DoubleBuffer protein;
+    private final DoubleBuffer fat;
+    private final DoubleBuffer carbohydrates;
+    private final IntBuffer sodium;
+    /** Code of the lower-cased cuisine in {@link #cuisineKeys}, or -1. */
+    private final IntBuffer cuisine;
+    /** Lower-cased cuisines, and the first spelling seen of each for facets. */
+    private final String[] cuisineKeys;
+    private final String[] cuisineNames;
+    private final Map<String, Integer> cuisineCodes;
+    /** Bitset words of every cuisine's rows, back to back, {@code size} bits per cuisine. */
+    private final LongBuffer cuisinePostings;
+    /** Exact spellings of cuisine and serves, for summaries: codes into the tables, or -1. */
+    private final IntBuffer cuisineLabel;
+    private final String[] cuisineLabels;
+    private final IntBuffer serves;
+    private final String[] servesLabels;
+    private final StringColumn titles;
+    private final TrigramIndex titleIndex;
+    private final IngredientIndex ingredients;
+    private final IntBuffer order;
+    /** Recipes by id in the given order, for pages asking for full rows. */
+    private final Function<List<Long>, List<Recipe>> loader;
+
+    private RecipeColumns(Builder b) {
+        size = b.size;
+        ids = b.ids;
+        rating = b.rating;
+        totalTime = b.totalTime;
+        calories = b.calories;
+        protein = b.protein;
+        fat = b.fat;
+        carbohydrates = b.carbohydrates;
+        sodium = b.sodium;
+        cuisine = b.cuisine;
+        cuisineKeys = b.cuisineKeys;
+        cuisineNames = b.cuisineNames;
+        cuisinePostings = b.cuisinePostings;
+        cuisineLabel = b.cuisineLabel;
+        cuisineLabels = b.cuisineLabels;
+        serves = b.serves;
+        servesLabels = b.servesLabels;
+        titles = b.titles;
+        titleIndex = b.titleIndex;
+        ingredients = b.ingredients;
+        order = b.order;
+        loader = b.loader;
+        cuisineCodes = new HashMap<>();
+        for (int code = 0; code < cuisineKeys.length; code++) {
+            cuisineCodes.put(cuisineKeys[code], code);
+        }
+    }
+
+    private static final class Builder {
+        int size;
+        LongBuffer ids;
+        DoubleBuffer rating;
+        IntBuffer totalTime;
+        IntBuffer calories;
+        DoubleBuffer protein;
+        DoubleBuffer fat;
+        DoubleBuffer carbohydrates;
+        IntBuffer sodium;
+        IntBuffer cuisine;
+        String[] cuisineKeys;
+        String[] cuisineNames;
+        LongBuffer cuisinePostings;
+        IntBuffer cuisineLabel;
+        String[] cuisineLabels;
+        IntBuffer serves;
+        String[] servesLabels;
+        StringColumn titles;
+        TrigramIndex titleIndex;
+        IngredientIndex ingredients;
+        IntBuffer order;
+        Function<List<Long>, List<Recipe>> loader;
+    }
+
+    /** The columns of one recipe that the snapshot holds; {@code null} where the column is NULL. */
+    public record Row(long id, String title, String cuisine, Double rating, Integer totalTime, Integer calories,
+                      Double protein, Double fat, Double carbohydrates, Integer sodium, String serves,
+                      String ingredientTokens) {
+    }
+
+    /**
+     * Columns over {@code rows}, which are not retained; {@code loader} returns the recipes
+     * with the given ids in that order, for pages asking for full rows.
+     */
+    public static RecipeColumns build(List<Row> rows, Function<List<Long>, List<Recipe>> loader) {
+        int size = rows.size();
+        long[] ids = new long[size];
+        double[] rating = new double[size];
+        int[] totalTime = new int[size];
+        int[] calories = new int[size];
+        double[] protein = new double[size];
+        double[] fat = new double[size];
+        double[] carbohydrates = new double[size];
+        int[] sodium = new int[size];
+        int[] cuisine = new int[size];
+        int[] cuisineLabel = new int[size];
+        int[] serves = new int[size];
+        String[] titles = new String[size];
+        String[] tokens = new String[size];
+        Map<String, Integer> cuisineCodes = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<BitSet> postings = new ArrayList<>();
+        Map<String, Integer> cuisineLabelCodes = new HashMap<>();
+        Map<String, Integer> servesCodes = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Row r = rows.get(i);
+            ids[i] = r.id();
+            rating[i] = r.rating() != null ? r.rating() : Double.NaN;
+            totalTime[i] = r.totalTime() != null ? r.totalTime() : NULL_INT;
+            calories[i] = r.calories() != null ? r.calories() : NULL_INT;
+            protein[i] = r.protein() != null ? r.protein() : Double.NaN;
+            fat[i] = r.fat() != null ? r.fat() : Double.NaN;
+            carbohydrates[i] = r.carbohydrates() != null ? r.carbohydrates() : Double.NaN;
+            sodium[i] = r.sodium() != null ? r.sodium() : NULL_INT;
+            titles[i] = r.title();
+            tokens[i] = r.ingredientTokens();
+            cuisineLabel[i] = code(cuisineLabelCodes, r.cuisine());
+            serves[i] = code(servesCodes, r.serves());
+
+            if (r.cuisine() == null) {
+                cuisine[i] = -1;
+            } else {
+                int code = cuisineCodes.computeIfAbsent(CuisineDictionary.key(r.cuisine()), k -> {
+                    postings.add(new BitSet(size));
+                    names.add(r.cuisine());
+                    return postings.size() - 1;
+                });
+                cuisine[i] = code;
+                postings.get(code).set(i);
+            }
+        }
+
+        Builder b = new Builder();
+        b.size = size;
+        b.ids = LongBuffer.wrap(ids);
+        b.rating = DoubleBuffer.wrap(rating);
+        b.totalTime = IntBuffer.wrap(totalTime);
+        b.calories = IntBuffer.wrap(calories);
+        b.protein = DoubleBuffer.wrap(protein);
+        b.fat = DoubleBuffer.wrap(fat);
+        b.carbohydrates = DoubleBuffer.wrap(carbohydrates);
+        b.sodium = IntBuffer.wrap(sodium);
+        b.cuisine = IntBuffer.wrap(cuisine);
+        b.cuisineKeys = new String[cuisineCodes.size()];
+        cuisineCodes.forEach((key, code) -> b.cuisineKeys[code] = key);
+        b.cuisineNames = names.toArray(new String[0]);
+        int words = words(size);
+        long[] postingWords = new long[postings.size() * words];
+        for (int code = 0; code < postings.size(); code++) {
+            long[] w = postings.get(code).toLongArray();
+            System.arraycopy(w, 0, postingWords, code * words, w.length);
+        }
+        b.cuisinePostings = LongBuffer.wrap(postingWords);
+        b.cuisineLabel = IntBuffer.wrap(cuisineLabel);
+        b.cuisineLabels = labels(cuisineLabelCodes);
+        b.serves = IntBuffer.wrap(serves);
+        b.servesLabels = labels(servesCodes);
+        b.titles = StringColumn.of(titles);
+        b.titleIndex = TrigramIndex.build(titles);
+        b.ingredients = IngredientIndex.build(IntStream.range(0, size).toArray(), tokens);
+        b.loader = loader;
+
+        // MySQL sorts NULL ratings last under DESC
+        Comparator<Integer> byRatingDesc = (x, y) -> compare(rating[x], ids[x], rating[y], ids[y]);
+        b.order = IntBuffer.wrap(IntStream.range(0, size).boxed().sorted(byRatingDesc).mapToInt(Integer::intValue).toArray());
+        return new RecipeColumns(b);
+    }
+
+    /**
+     * The columns written by {@link #write}, searched from the mapping; {@code loader} returns
+     * the recipes with the given ids in that order, for pages asking for full rows.
+     */
+    public static RecipeColumns read(SnapshotFile file, Function<List<Long>, List<Recipe>> loader) {
+        Builder b = new Builder();
+        b.ids = file.longs("ids");
+        b.size = b.ids.limit();
+        b.rating = file.doubles("rating");
+        b.totalTime = file.ints("total_time");
+        b.calories = file.ints("calories");
+        b.protein = file.doubles("protein");
+        b.fat = file.doubles("fat");
+        b.carbohydrates = file.doubles("carbohydrates");
+        b.sodium = file.ints("sodium");
+        b.cuisine = file.ints("cuisine");
+        b.cuisineKeys = StringColumn.read(file, "cuisine.keys").toArray();
+        b.cuisineNames = StringColumn.read(file, "cuisine.names").toArray();
+        b.cuisinePostings = file.longs("cuisine.postings");
+        b.cuisineLabel = file.ints("cuisine.label");
+        b.cuisineLabels = StringColumn.read(file, "cuisine.labels").toArray();
+        b.serves = file.ints("serves");
+        b.servesLabels = StringColumn.read(file, "serves.labels").toArray();
+        b.titles = StringColumn.read(file, "titles");
+        b.titleIndex = TrigramIndex.read(file, "title");
+        b.ingredients = IngredientIndex.read(file, "ingredients");
+        b.order = file.ints("order");
+        b.loader = loader;
+        return new RecipeColumns(b);
+    }
+
+    public void write(SnapshotFile.Writer out) throws IOException {
+        out.longs("ids", ids)
+                .doubles("rating", rating)
+                .ints("total_time", totalTime)
+                .ints("calories", calories)
+                .doubles("protein", protein)
+                .doubles("fat", fat)
+                .doubles("carbohydrates", carbohydrates)
+                .ints("sodium", sodium)
+                .ints("cuisine", cuisine)
+                .longs("cuisine.postings", cuisinePostings)
+                .ints("cuisine.label", cuisineLabel)
+                .ints("serves", serves)
+                .ints("order", order);
+        StringColumn.of(cuisineKeys).write(out, "cuisine.keys");
+        StringColumn.of(cuisineNames).write(out, "cuisine.names");
+        StringColumn.of(cuisineLabels).write(out, "cuisine.labels");
+        StringColumn.of(servesLabels).write(out, "serves.labels");
+        titles.write(out, "titles");
+        titleIndex.write(out, "title");
+        ingredients.write(out, "ingredients");
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public PagedResult search(SearchParams p) {
+        return search(p, null);
+    }
+
+    /** As {@link #search(SearchParams)}, also counting {@code facets} over every match. */
+    public PagedResult search(SearchParams p, SearchFacets facets) {
+        SearchCursor after = SearchCursor.decode(p.cursor);
+        IngredientQuery q = IngredientQuery.of(p);
+        IngredientIndex.Match ingredientMatch = q != null ? ingredients.match(q) : null;
+        BitSet matches = filter(p, ingredientMatch);
+        boolean ranked = ingredientMatch != null && ingredientMatch.tiers != null;
+        if (ranked && after != null && after.matches == null) {
+            throw new InvalidSearchParameterException("Invalid cursor: " + p.cursor);
+        }
+
+        int page = (p.page == null || p.page < 1) ? 1 : p.page;
+        int limit = (p.limit == null || p.limit < 1) ? 10 : p.limit;
+        int skip = after == null ? (page - 1) * limit : 0;
+        int total = matches.cardinality();
+
+        int[] hits = new int[Math.max(0, Math.min(limit, total - skip))];
+        int[] hitMatches = ranked ? new int[hits.length] : null;
+        int n = 0;
+        boolean more = false;
+        // A ranked search walks the order once per match count, most matched terms first
+        int top = ranked ? ingredientMatch.tiers.length - 1 : 0;
+        scan:
+        for (int k = top; k >= (ranked ? 1 : 0); k--) {
+            BitSet pass = matches;
+            if (ranked) {
+                if (after != null && k > after.matches) continue;
+                pass = ingredientMatch.tiers[k].toBitSet();
+                pass.and(matches);
+            }
+            int start = after == null || (ranked && k < after.matches) ? 0 : seek(after);
+            for (int r = start; r < size; r++) {
+                int row = order.get(r);
+                if (!pass.get(row)) continue;
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                if (n == limit) {
+                    more = true;
+                    break scan;
+                }
+                if (ranked) hitMatches[n] = k;
+                hits[n++] = row;
+            }
+        }
+
+        PagedResult pr = new PagedResult();
+        // The bitset cardinality is free here, so every mode except NONE gets the exact total
+        pr.total = p.count == CountMode.NONE ? null : (long) total;
+        pr.hasMore = more;
+        if (p.summary) {
+            pr.summaries = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) pr.summaries.add(summary(hits[i]));
+        } else {
+            List<Long> pageIds = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) pageIds.add(ids.get(hits[i]));
+            pr.data = n == 0 ? new ArrayList<>() : loader.apply(pageIds);
+        }
+        SearchCursor last = more ? new SearchCursor(nullable(rating.get(hits[n - 1])), ids.get(hits[n - 1])) : null;
+        pr.next = last == null ? null : (ranked ? last.ranked(hitMatches[n - 1]) : last).encode();
+        pr.facets = facets != null ? facets(matches, facets) : null;
+        return pr;
+    }
+
+    private RecipeSummaryDto summary(int row) {
+        int time = totalTime.get(row);
+        return RecipeSummaryDto.builder()
+                .id(ids.get(row))
+                .title(titles.get(row))
+                .cuisine(label(cuisineLabels, cuisineLabel.get(row)))
+                .rating(nullable(rating.get(row)))
+                .total_time(time != NULL_INT ? time : null)
+                .serves(label(servesLabels, serves.get(row)))
+                .build();
+    }
+
+    /** One walk over the matches, bumping a counter per requested facet. */
+    Map<String, Map<String, Long>> facets(BitSet matches, SearchFacets facets) {
+        long[] byCuisine = facets.cuisine ? new long[cuisineNames.length] : null;
+        long[] byRating = SearchFacets.counts(facets.rating);
+        long[] byTime = SearchFacets.counts(facets.totalTime);
+        long[] byCalories = SearchFacets.counts(facets.calories);
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            int c = cuisine.get(i);
+            if (byCuisine != null && c >= 0) {
+                byCuisine[c]++;
+            }
+            double r = rating.get(i);
+            if (byRating != null && !Double.isNaN(r)) {
+                byRating[SearchFacets.bucket(facets.rating, r)]++;
+            }
+            int t = totalTime.get(i);
+            if (byTime != null && t != NULL_INT) {
+                byTime[SearchFacets.bucket(facets.totalTime, t)]++;
+            }
+            int cal = calories.get(i);
+            if (byCalories != null && cal != NULL_INT) {
+                byCalories[SearchFacets.bucket(facets.calories, cal)]++;
+            }
+        }
+        Map<String, Long> cuisines = new HashMap<>();
+        if (byCuisine != null) {
+            for (int code = 0; code < byCuisine.length; code++) {
+                if (byCuisine[code] > 0) {
+                    cuisines.put(cuisineNames[code], byCuisine[code]);
+                }
+            }
+        }
+        return facets.result(cuisines, byRating, byTime, byCalories);
+    }
+
+    /** First position in {@code order} that sorts after the cursor. */
+    private int seek(SearchCursor after) {
+        double key = after.rating != null ? after.rating : Double.NaN;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int row = order.get(mid);
+            if (compare(rating.get(row), ids.get(row), key, after.id) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Order of two rows' keys under rating DESC (NaN last), id ASC. */
+    private static int compare(double ratingA, long idA, double ratingB, long idB) {
+        boolean na = Double.isNaN(ratingA), nb = Double.isNaN(ratingB);
+        if (na != nb) return na ? 1 : -1;
+        int c = na ? 0 : Double.compare(ratingB, ratingA);
+        return c != 0 ? c : Long.compare(idA, idB);
+    }
+
+    BitSet filter(SearchParams p, IngredientIndex.Match ingredientMatch) {
+        BitSet bits;
+        if (p.cuisine != null && !p.cuisine.isBlank()) {
+            Integer code = cuisineCodes.get(CuisineDictionary.key(p.cuisine));
+            int words = words(size);
+            bits = code == null ? new BitSet() : BitSet.valueOf(cuisinePostings.slice(code * words, words));
+        } else {
+            bits = new BitSet(size);
+            bits.set(0, size);
+        }
+        if (ingredientMatch != null && ingredientMatch.include != null) {
+            bits.and(ingredientMatch.include.toBitSet());
+        } else if (ingredientMatch != null) {
+            bits.andNot(ingredientMatch.exclude.toBitSet());
+        }
+
+        RangeFilter ratingF = RangeFilter.parse(p.ratingExpr, false);
+        RangeFilter timeF = RangeFilter.parse(p.totalTimeExpr, true);
+        RangeFilter calF = RangeFilter.parse(p.caloriesExpr, true);
+        RangeFilter proteinF = RangeFilter.parse(p.proteinExpr, false);
+        RangeFilter fatF = RangeFilter.parse(p.fatExpr, false);
+        RangeFilter carbsF = RangeFilter.parse(p.carbohydratesExpr, false);
+        RangeFilter sodiumF = RangeFilter.parse(p.sodiumExpr, true);
+        boolean numeric = false;
+        for (RangeFilter f : new RangeFilter[] { ratingF, timeF, calF, proteinF, fatF, carbsF, sodiumF }) {
+            if (f != null && f.isEmpty()) {
+                return new BitSet();
+            }
+            numeric |= f != null;
+        }
+        String title = (p.title != null && !p.title.isBlank()) ? p.title : null;
+        int[] titleMatches = title != null ? titleIndex.search(title) : null;
+        if (titleMatches != null) {
+            BitSet titled = new BitSet(size);
+            for (int row : titleMatches) titled.set(row);
+            bits.and(titled);
+            title = null;
+        }
+
+        if (!numeric && title == null) {
+            return bits;
+        }
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if ((ratingF != null && !ratingF.test(rating.get(i)))
+                    || (timeF != null && !test(totalTime.get(i), timeF))
+                    || (calF != null && !test(calories.get(i), calF))
+                    || (proteinF != null && !proteinF.test(protein.get(i)))
+                    || (fatF != null && !fatF.test(fat.get(i)))
+                    || (carbsF != null && !carbsF.test(carbohydrates.get(i)))
+                    || (sodiumF != null && !test(sodium.get(i), sodiumF))
+                    || (title != null && !titleIndex.contains(i, title))) {
+                bits.clear(i);
+            }
+        }
+        return bits;
+    }
+
+    private static boolean test(int actual, RangeFilter filter) {
+        return actual != NULL_INT && filter.test(actual);
+    }
+
+    private static Double nullable(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static int code(Map<String, Integer> codes, String value) {
+        return value == null ? -1 : codes.computeIfAbsent(value, k -> codes.size());
+    }
+
+    private static String[] labels(Map<String, Integer> codes) {
+        String[] labels = new String[codes.size()];
+        codes.forEach((label, code) -> labels[code] = label);
+        return labels;
+    }
+
+    private static String label(String[] labels, int code) {
+        return code >= 0 ? labels[code] : null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.recipes.search;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.util.RecipesImportedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Title and cuisine completions for typeahead, served from {@link SuggestIndex} snapshots.
+ * A suggestion weighs the sum of its recipes' ratings, so well-rated titles and cuisines
+ * with many well-rated recipes come first. Built at startup; after an import the new
+ * snapshot is built in the background and swapped in, while lookups keep using the old one.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeSuggestions {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSuggestions.class);
+
+    private final RecipeRepository recipeRepository;
+    private final ExecutorService queryExecutor;
+
+    @Value("${recipes.suggest.max-limit:20}")
+    private int maxLimit;
+
+    private volatile SuggestIndex titles;
+    private volatile SuggestIndex cuisines;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        try {
+            long start = System.nanoTime();
+            List<Object[]> rows = recipeRepository.findSuggestionFields();
+            String[] titleTexts = new String[rows.size()];
+            String[] cuisineTexts = new String[rows.size()];
+            double[] weights = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                titleTexts[i] = (String) row[0];
+                cuisineTexts[i] = (String) row[1];
+                weights[i] = row[2] != null ? ((Number) row[2]).doubleValue() : 0;
+            }
+            SuggestIndex t = SuggestIndex.build(titleTexts, weights);
+            SuggestIndex c = SuggestIndex.build(cuisineTexts, weights);
+            titles = t;
+            cuisines = c;
+            logger.info("Built suggestion indexes: {} titles, {} cuisines in {} ms",
+                    t.size(), c.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build suggestion indexes: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener(RecipesImportedEvent.class)
+    public void onImport() {
+        if (titles != null) {
+            CompletableFuture.runAsync(this::rebuild, queryExecutor);
+        }
+    }
+
+    /** Titles with a word starting with {@code prefix}; empty until the first build. */
+    public List<String> titles(String prefix, int limit) {
+        checkLimit(limit);
+        SuggestIndex index = titles;
+        return index != null ? index.complete(prefix, limit) : List.of();
+    }
+
+    /** Cuisines with a word starting with {@code prefix}; empty until the first build. */
+    public List<String> cuisines(String prefix, int limit) {
+        checkLimit(limit);
+        SuggestIndex index = cuisines;
+        return index != null ? index.complete(prefix, limit) : List.of();
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidSearchParameterException("limit must be between 1 and " + maxLimit);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.example.recipes.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable compressed set of non-negative ints in the Roaring layout: values are grouped
+ * by their high 16 bits, and each group keeps its low 16 bits either as a sorted
+ * {@code char[]} (up to {@link #ARRAY_MAX} values) or as a 65,536-bit bitmap, whichever is
+ * smaller. Sparse postings cost two bytes a value, dense ones one bit, and set operations
+ * work a group at a time.
+ */
+public final class RoaringIds {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    public static final RoaringIds EMPTY = new RoaringIds(new char[0], new Object[0], 0);
+
+    /** High 16 bits of each group, ascending. */
+    private final char[] keys;
+    /** Per group: {@code char[]} of sorted low bits, or {@code long[1024]} bitmap. */
+    private final Object[] containers;
+    private final int cardinality;
+
+    private RoaringIds(char[] keys, Object[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /** Collects values given in ascending order, repeats allowed. */
+    public static final class Builder {
+        private char[] keys = new char[4];
+        private Object[] containers = new Object[4];
+        private int groups;
+        private int cardinality;
+        private char[] values = new char[16];
+        private int count;
+        private int last = -1;
+
+        public Builder add(int value) {
+            if (value < 0 || value < last) {
+                throw new IllegalArgumentException("Values must be non-negative and ascending: " + value);
+            }
+            if (value == last) {
+                return this;
+            }
+            if (last < 0 || value >>> 16 != last >>> 16) {
+                flush();
+                keys = grow(keys, groups);
+                keys[groups] = (char) (value >>> 16);
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = (char) value;
+            last = value;
+            return this;
+        }
+
+        private void flush() {
+            if (count == 0) {
+                return;
+            }
+            if (containers.length == groups) {
+                containers = Arrays.copyOf(containers, groups * 2);
+            }
+            containers[groups++] = container(values, count);
+            cardinality += count;
+            count = 0;
+        }
+
+        public RoaringIds build() {
+            flush();
+            return new RoaringIds(Arrays.copyOf(keys, groups), Arrays.copyOf(containers, groups), cardinality);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** The set of {@code sorted}, which must be ascending. */
+    public static RoaringIds of(int... sorted) {
+        Builder b = new Builder();
+        for (int v : sorted) {
+            b.add(v);
+        }
+        return b.build();
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int g = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (g < 0) {
+            return false;
+        }
+        char low = (char) value;
+        return containers[g] instanceof long[] bits
+                ? (bits[low >>> 6] & (1L << low)) != 0
+                : Arrays.binarySearch((char[]) containers[g], low) >= 0;
+    }
+
+    public RoaringIds and(RoaringIds other) {
+        char[] k = new char[Math.min(keys.length, other.keys.length)];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int total = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length;) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object container;
+                if (containers[i] instanceof char[] a && other.containers[j] instanceof char[] b) {
+                    container = intersect(a, b);
+                } else {
+                    long[] bits = bitmap(containers[i]);
+                    long[] mask = bitmap(other.containers[j]);
+                    for (int w = 0; w < BITMAP_WORDS; w++) {
+                        bits[w] &= mask[w];
+                    }
+                    container = fromBitmap(bits);
+                }
+                int size = size(container);
+                if (size > 0) {
+                    k[n] = keys[i];
+                    c[n++] = container;
+                    total += size;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new RoaringIds(Arrays.copyOf(k, n), Arrays.copyOf(c, n), total);
+    }
+
+    public RoaringIds or(RoaringIds other) {
+        char[] k = new char[keys.length + other.keys.length];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            Object container;
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                k[n] = keys[i];
+                container = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                k[n] = other.keys[j];
+                container = other.containers[j++];
+            } else {
+                long[] bits = bitmap(containers[i++]);
+                long[] more = bitmap(other.containers[j++]);
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    bits[w] |= more[w];
+                }
+                k[n] = keys[i - 1];
+                container = fromBitmap(bits);
+            }
+            c[n++] = container;
+            total += size(container);
+        }
+        return new RoaringIds(Arrays.copyOf(k, n), Arrays.copyOf(c, n), total);
+    }
+
+    /** The values of this set that are not in {@code other}. */
+    public RoaringIds andNot(RoaringIds other) {
+        char[] k = new char[keys.length];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int total = 0;
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Object container = containers[i];
+            if (j < other.keys.length && other.keys[j] == keys[i] && container instanceof char[] a) {
+                container = subtract(a, other.containers[j]);
+            } else if (j < other.keys.length && other.keys[j] == keys[i]) {
+                long[] bits = bitmap(container);
+                long[] minus = bitmap(other.containers[j]);
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    bits[w] &= ~minus[w];
+                }
+                container = fromBitmap(bits);
+            }
+            int size = size(container);
+            if (size > 0) {
+                k[n] = keys[i];
+                c[n++] = container;
+                total += size;
+            }
+        }
+        return new RoaringIds(Arrays.copyOf(k, n), Arrays.copyOf(c, n), total);
+    }
+
+    /** The values in ascending order. */
+    public int[] toArray() {
+        int[] out = new int[cardinality];
+        int n = 0;
+        for (int g = 0; g < keys.length; g++) {
+            int high = keys[g] << 16;
+            if (containers[g] instanceof long[] bits) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        out[n++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    }
+                }
+            } else {
+                for (char low : (char[]) containers[g]) {
+                    out[n++] = high | low;
+                }
+            }
+        }
+        return out;
+    }
+
+    public BitSet toBitSet() {
+        BitSet set = new BitSet();
+        for (int v : toArray()) {
+            set.set(v);
+        }
+        return set;
+    }
+
+    /** Group count, then per group its key, size and values (as chars) or bitmap words. */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(keys.length);
+        for (int g = 0; g < keys.length; g++) {
+            out.writeChar(keys[g]);
+            out.writeInt(size(containers[g]));
+            if (containers[g] instanceof long[] bits) {
+                for (long word : bits) {
+                    out.writeLong(word);
+                }
+            } else {
+                for (char low : (char[]) containers[g]) {
+                    out.writeChar(low);
+                }
+            }
+        }
+    }
+
+    public static RoaringIds read(DataInput in) throws IOException {
+        int groups = in.readInt();
+        char[] keys = new char[groups];
+        Object[] containers = new Object[groups];
+        int total = 0;
+        for (int g = 0; g < groups; g++) {
+            keys[g] = in.readChar();
+            int size = in.readInt();
+            if (size > ARRAY_MAX) {
+                long[] bits = new long[BITMAP_WORDS];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    bits[w] = in.readLong();
+                }
+                containers[g] = bits;
+            } else {
+                char[] lows = new char[size];
+                for (int i = 0; i < size; i++) {
+                    lows[i] = in.readChar();
+                }
+                containers[g] = lows;
+            }
+            total += size;
+        }
+        return new RoaringIds(keys, containers, total);
+    }
+
+    /** The {@link #write} form as bytes. */
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            write(new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static RoaringIds fromBytes(byte[] bytes) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static char[] intersect(char[] a, char[] b) {
+        char[] out = new char[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** The values of {@code a} missing from {@code minus}, which may be either kind. */
+    private static char[] subtract(char[] a, Object minus) {
+        char[] out = new char[a.length];
+        int n = 0;
+        for (char low : a) {
+            boolean present = minus instanceof long[] bits
+                    ? (bits[low >>> 6] & (1L << low)) != 0
+                    : Arrays.binarySearch((char[]) minus, low) >= 0;
+            if (!present) {
+                out[n++] = low;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Object container(char[] values, int count) {
+        if (count <= ARRAY_MAX) {
+            return Arrays.copyOf(values, count);
+        }
+        long[] bits = new long[BITMAP_WORDS];
+        for (int i = 0; i < count; i++) {
+            bits[values[i] >>> 6] |= 1L << values[i];
+        }
+        return bits;
+    }
+
+    private static int size(Object container) {
+        if (container instanceof long[] bits) {
+            int size = 0;
+            for (long word : bits) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+        return ((char[]) container).length;
+    }
+
+    /** A fresh bitmap copy of either container kind. */
+    private static long[] bitmap(Object container) {
+        if (container instanceof long[] bits) {
+            return bits.clone();
+        }
+        long[] bits = new long[BITMAP_WORDS];
+        for (char low : (char[]) container) {
+            bits[low >>> 6] |= 1L << low;
+        }
+        return bits;
+    }
+
+    private static Object fromBitmap(long[] bits) {
+        int size = 0;
+        for (long word : bits) {
+            size += Long.bitCount(word);
+        }
+        if (size > ARRAY_MAX) {
+            return bits;
+        }
+        char[] lows = new char[size];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                lows[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return lows;
+    }
+
+    private static char[] grow(char[] array, int size) {
+        return size < array.length ? array : Arrays.copyOf(array, size * 2);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.recipes.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.util.DatasetVersion;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Directory of {@link SnapshotFile}s of derived search data, set by
+ * {@code recipes.search.snapshot-dir} (empty disables snapshots). A snapshot is only handed
+ * out when it was saved for the dataset version the database is at now; anything else is
+ * rebuilt from the table as before and saved again.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchSnapshotStore.class);
+
+    private final DatasetVersion datasetVersion;
+
+    @Value("${recipes.search.snapshot-dir:}")
+    private String dir;
+
+    /** Writes the sections of one snapshot. */
+    @FunctionalInterface
+    public interface Content {
+        void write(SnapshotFile.Writer out) throws IOException;
+    }
+
+    /** The mapped snapshot {@code name} if it matches the current dataset version, else {@code null}. */
+    public SnapshotFile open(String name) {
+        if (dir.isBlank() || !Files.exists(path(name))) {
+            return null;
+        }
+        try {
+            SnapshotFile file = SnapshotFile.open(path(name));
+            DatasetVersion.Snapshot current = datasetVersion.current();
+            if (file.version() != current.version || file.updatedAt().toEpochMilli() != current.updatedAt.toEpochMilli()) {
+                logger.info("Ignoring {} snapshot of dataset version {}, now at {}", name, file.version(), current.version);
+                return null;
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable {} snapshot: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Replaces snapshot {@code name} with {@code content}, built from dataset {@code version}; failures are logged. */
+    public void save(String name, DatasetVersion.Snapshot version, Content content) {
+        if (dir.isBlank()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (SnapshotFile.Writer out = new SnapshotFile.Writer(path(name), version.version, version.updatedAt)) {
+            content.write(out);
+            out.commit();
+            logger.info("Saved {} snapshot of dataset version {} in {} ms", name, version.version,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to save {} snapshot: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private Path path(String name) {
+        return Path.of(dir, name + ".snap");
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.recipes.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Versioned file of named sections of primitive arrays, read back by memory-mapping so that
+ * derived search data can be used without rebuilding it: pages are only read from disk when
+ * a query touches them. Each file records the dataset version it was built from.
+ * <p>
+ * Layout, little-endian: a header (magic, format, dataset version, dataset timestamp, offset of
+ * the section table), the 8-byte aligned sections, and the table (count, then name, offset and
+ * length of each section).
+ */
+public final class SnapshotFile {
+
+    private static final int MAGIC = 0x50414e53; // "SNAP"
+    /** Bumped whenever a section's layout or key derivation changes; older files are rebuilt, not read. */
+    static final int FORMAT = 3;
+    private static final int HEADER_BYTES = 32;
+
+    private final long version;
+    private final Instant updatedAt;
+    private final Map<String, ByteBuffer> sections;
+
+    private SnapshotFile(long version, Instant updatedAt, Map<String, ByteBuffer> sections) {
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.sections = sections;
+    }
+
+    /**
+     * Maps every section of {@code path}.
+     *
+     * @throws IOException when the file cannot be read or is not a snapshot of this format
+     */
+    public static SnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            int format = header.getInt();
+            if (format != FORMAT) {
+                throw new IOException("Unsupported snapshot format " + format + ": " + path);
+            }
+            long version = header.getLong();
+            Instant updatedAt = Instant.ofEpochMilli(header.getLong());
+            long tableOffset = header.getLong();
+
+            ByteBuffer table = ByteBuffer.allocate((int) (channel.size() - tableOffset)).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, table, tableOffset);
+            table.flip();
+            int count = table.getInt();
+            Map<String, ByteBuffer> sections = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[table.getShort()];
+                table.get(name);
+                long offset = table.getLong();
+                long length = table.getLong();
+                sections.put(new String(name, StandardCharsets.UTF_8),
+                        channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN));
+            }
+            return new SnapshotFile(version, updatedAt, sections);
+        }
+    }
+
+    /** Dataset version the snapshot was built from. */
+    public long version() {
+        return version;
+    }
+
+    public Instant updatedAt() {
+        return updatedAt;
+    }
+
+    public LongBuffer longs(String name) {
+        return section(name).asLongBuffer();
+    }
+
+    public IntBuffer ints(String name) {
+        return section(name).asIntBuffer();
+    }
+
+    public DoubleBuffer doubles(String name) {
+        return section(name).asDoubleBuffer();
+    }
+
+    public CharBuffer chars(String name) {
+        return section(name).asCharBuffer();
+    }
+
+    public ByteBuffer bytes(String name) {
+        return section(name);
+    }
+
+    private ByteBuffer section(String name) {
+        ByteBuffer section = sections.get(name);
+        if (section == null) {
+            throw new IllegalStateException("Snapshot has no section " + name);
+        }
+        return section.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Writes a new snapshot that replaces the file atomically on {@link #commit()}. */
+    public static final class Writer implements AutoCloseable {
+        private final Path path;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private final Map<String, long[]> table = new LinkedHashMap<>();
+        private final long version;
+        private final Instant updatedAt;
+        private long position = HEADER_BYTES;
+        private boolean committed;
+
+        public Writer(Path path, long version, Instant updatedAt) throws IOException {
+            this.path = path;
+            this.temp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.version = version;
+            this.updatedAt = updatedAt;
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        public Writer longs(String name, LongBuffer values) throws IOException {
+            begin(name);
+            for (int i = 0; i < values.limit(); i++) {
+                room(8).putLong(values.get(i));
+            }
+            return end(name);
+        }
+
+        public Writer ints(String name, IntBuffer values) throws IOException {
+            begin(name);
+            for (int i = 0; i < values.limit(); i++) {
+                room(4).putInt(values.get(i));
+            }
+            return end(name);
+        }
+
+        public Writer doubles(String name, DoubleBuffer values) throws IOException {
+            begin(name);
+            for (int i = 0; i < values.limit(); i++) {
+                room(8).putDouble(values.get(i));
+            }
+            return end(name);
+        }
+
+        public Writer chars(String name, CharBuffer values) throws IOException {
+            begin(name);
+            for (int i = 0; i < values.limit(); i++) {
+                room(2).putChar(values.get(i));
+            }
+            return end(name);
+        }
+
+        public Writer bytes(String name, ByteBuffer values) throws IOException {
+            begin(name);
+            for (int i = 0; i < values.limit(); i++) {
+                room(1).put(values.get(i));
+            }
+            return end(name);
+        }
+
+        /** Writes the table and header, flushes, and moves the file into place. */
+        public void commit() throws IOException {
+            flush();
+            long tableOffset = position;
+            ByteBuffer out = ByteBuffer.allocate(tableSize()).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(table.size());
+            table.forEach((name, span) -> {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.putShort((short) bytes.length).put(bytes).putLong(span[0]).putLong(span[1]);
+            });
+            writeFully(out.flip(), tableOffset);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT).putLong(version).putLong(updatedAt.toEpochMilli()).putLong(tableOffset);
+            writeFully(header.flip(), 0);
+            channel.force(true);
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        /** Discards an uncommitted file. */
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void begin(String name) throws IOException {
+            if (table.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate section " + name);
+            }
+            // Align every section to 8 bytes so that views over it are aligned too
+            flush();
+            for (long pad = -position & 7; pad > 0; pad--) {
+                room(1).put((byte) 0);
+            }
+            flush();
+            table.put(name, new long[] { position, 0 });
+        }
+
+        private Writer end(String name) throws IOException {
+            flush();
+            long[] span = table.get(name);
+            span[1] = position - span[0];
+            return this;
+        }
+
+        private ByteBuffer room(int bytes) throws IOException {
+            if (chunk.remaining() < bytes) {
+                flush();
+            }
+            return chunk;
+        }
+
+        private void flush() throws IOException {
+            chunk.flip();
+            long at = position;
+            position += chunk.remaining();
+            writeFully(chunk, at);
+            chunk.clear();
+        }
+
+        private void writeFully(ByteBuffer buffer, long at) throws IOException {
+            while (buffer.hasRemaining()) {
+                at += channel.write(buffer, at);
+            }
+        }
+
+        private int tableSize() {
+            int size = 4;
+            for (String name : table.keySet()) {
+                size += 2 + name.getBytes(StandardCharsets.UTF_8).length + 16;
+            }
+            return size;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long at) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, at);
+            if (n < 0) {
+                throw new IOException("Truncated snapshot");
+            }
+            at += n;
+        }
+    }
+}
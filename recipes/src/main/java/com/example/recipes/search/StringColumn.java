@@ -0,0 +1,117 @@
+package com.example.recipes.search;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Strings stored back to back in one char buffer and addressed by position, so that a column
+ * of texts can live in a {@link SnapshotFile} and be read without materializing every string.
+ * {@code null} is stored as the empty string.
+ */
+final class StringColumn {
+
+    private final CharBuffer chars;
+    /** {@code ends[i]}: offset just past string {@code i}, which starts where {@code i - 1} ends. */
+    private final IntBuffer ends;
+
+    private StringColumn(CharBuffer chars, IntBuffer ends) {
+        this.chars = chars;
+        this.ends = ends;
+    }
+
+    static StringColumn of(String[] values) {
+        int total = 0;
+        for (String v : values) {
+            total += v != null ? v.length() : 0;
+        }
+        char[] chars = new char[total];
+        int[] ends = new int[values.length];
+        int end = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                values[i].getChars(0, values[i].length(), chars, end);
+                end += values[i].length();
+            }
+            ends[i] = end;
+        }
+        return new StringColumn(CharBuffer.wrap(chars), IntBuffer.wrap(ends));
+    }
+
+    static StringColumn read(SnapshotFile file, String name) {
+        return new StringColumn(file.chars(name + ".chars"), file.ints(name + ".ends"));
+    }
+
+    void write(SnapshotFile.Writer out, String name) throws IOException {
+        out.chars(name + ".chars", chars).ints(name + ".ends", ends);
+    }
+
+    int size() {
+        return ends.limit();
+    }
+
+    String get(int i) {
+        int start = start(i);
+        return chars.subSequence(start, ends.get(i)).toString();
+    }
+
+    /** Whether string {@code i} contains {@code needle}, without copying it. */
+    boolean contains(int i, String needle) {
+        int start = start(i);
+        int last = ends.get(i) - needle.length();
+        outer:
+        for (int from = start; from <= last; from++) {
+            for (int k = 0; k < needle.length(); k++) {
+                if (chars.get(from + k) != needle.charAt(k)) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /** {@link String#compareTo} of string {@code i} and {@code key}. */
+    int compareTo(int i, String key) {
+        int start = start(i);
+        int length = ends.get(i) - start;
+        int n = Math.min(length, key.length());
+        for (int k = 0; k < n; k++) {
+            char c = chars.get(start + k);
+            if (c != key.charAt(k)) {
+                return c - key.charAt(k);
+            }
+        }
+        return length - key.length();
+    }
+
+    /** Position of {@code key} in a column sorted by {@link String#compareTo}, or -1. */
+    int indexOf(String key) {
+        int lo = 0;
+        int hi = size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareTo(mid, key);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    String[] toArray() {
+        String[] values = new String[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(i);
+        }
+        return values;
+    }
+
+    private int start(int i) {
+        return i == 0 ? 0 : ends.get(i - 1);
+    }
+}
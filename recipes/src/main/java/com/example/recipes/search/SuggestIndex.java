@@ -0,0 +1,188 @@
+package com.example.recipes.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Weighted prefix index for typeahead. Every word start of every text is a key, so
+ * {@code "pec"} and {@code "pecan p"} both complete to "Classic Pecan Pie". Keys are sorted,
+ * which turns a prefix into a contiguous range, and a sparse table over the key weights finds
+ * the heaviest key of any range in constant time; the top {@code k} completions are taken by
+ * repeatedly splitting the range around its heaviest key, so a lookup costs
+ * {@code O(log n + k log k)} however many keys share the prefix.
+ * <p>
+ * Texts that differ only in case are one suggestion: the first spelling is shown and the
+ * weights are summed. Equal weights rank alphabetically.
+ */
+public final class SuggestIndex {
+
+    private final String[] texts;
+    private final double[] weights;
+    private final String[] keys;
+    private final int[] keyText;
+    /** {@code best[j][i]}: the key in {@code [i, i + 2^j)} that ranks first. */
+    private final int[][] best;
+
+    private SuggestIndex(String[] texts, double[] weights, String[] keys, int[] keyText) {
+        this.texts = texts;
+        this.weights = weights;
+        this.keys = keys;
+        this.keyText = keyText;
+        int n = keys.length;
+        int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+        best = new int[levels][];
+        best[0] = new int[n];
+        for (int i = 0; i < n; i++) {
+            best[0][i] = i;
+        }
+        for (int j = 1; j < levels; j++) {
+            int half = 1 << (j - 1);
+            int[] prev = best[j - 1];
+            int[] level = new int[n - (1 << j) + 1];
+            for (int i = 0; i < level.length; i++) {
+                level[i] = better(prev[i], prev[i + half]);
+            }
+            best[j] = level;
+        }
+    }
+
+    /**
+     * Builds the index over {@code texts}, where {@code weights[i]} is the weight one
+     * occurrence of {@code texts[i]} adds to its suggestion. Blank texts are skipped.
+     */
+    public static SuggestIndex build(String[] texts, double[] weights) {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<String> shown = new ArrayList<>();
+        List<Double> summed = new ArrayList<>();
+        for (int i = 0; i < texts.length; i++) {
+            if (texts[i] == null || texts[i].isBlank()) {
+                continue;
+            }
+            String text = texts[i].trim();
+            Integer slot = slots.putIfAbsent(text.toLowerCase(), shown.size());
+            if (slot == null) {
+                shown.add(text);
+                summed.add(weights[i]);
+            } else {
+                summed.set(slot, summed.get(slot) + weights[i]);
+            }
+        }
+
+        // Text ids in alphabetical order, so that the lower id wins a tie
+        Integer[] order = new Integer[shown.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> shown.get(i).toLowerCase()));
+        String[] sortedTexts = new String[order.length];
+        double[] sortedWeights = new double[order.length];
+        List<String> keyList = new ArrayList<>();
+        List<Integer> keyOwner = new ArrayList<>();
+        for (int t = 0; t < order.length; t++) {
+            sortedTexts[t] = shown.get(order[t]);
+            sortedWeights[t] = summed.get(order[t]);
+            String lower = sortedTexts[t].toLowerCase();
+            for (int i = 0; i < lower.length(); i++) {
+                if (Character.isLetterOrDigit(lower.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1)))) {
+                    keyList.add(lower.substring(i));
+                    keyOwner.add(t);
+                }
+            }
+        }
+
+        Integer[] byKey = new Integer[keyList.size()];
+        for (int i = 0; i < byKey.length; i++) {
+            byKey[i] = i;
+        }
+        Arrays.sort(byKey, Comparator.comparing(keyList::get));
+        String[] keys = new String[byKey.length];
+        int[] keyText = new int[byKey.length];
+        for (int i = 0; i < byKey.length; i++) {
+            keys[i] = keyList.get(byKey[i]);
+            keyText[i] = keyOwner.get(byKey[i]);
+        }
+        return new SuggestIndex(sortedTexts, sortedWeights, keys, keyText);
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * Up to {@code limit} texts with a word starting with {@code prefix}, ignoring case,
+     * heaviest first. A blank prefix matches every text.
+     */
+    public List<String> complete(String prefix, int limit) {
+        String p = prefix == null ? "" : prefix.trim().toLowerCase();
+        int from = lowerBound(p);
+        int to = p.isEmpty() ? keys.length : lowerBound(p + Character.MAX_VALUE);
+        if (from >= to || limit <= 0) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, to - from));
+
+        // Ranges are {from, to, heaviest key}; a text matched by several word starts comes out once
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == b[2] ? 0 : better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[] { from, to, max(from, to) });
+        int[] taken = new int[limit];
+        while (result.size() < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            int text = keyText[key];
+            if (!contains(taken, result.size(), text)) {
+                taken[result.size()] = text;
+                result.add(texts[text]);
+            }
+            if (range[0] < key) {
+                ranges.add(new int[] { range[0], key, max(range[0], key) });
+            }
+            if (key + 1 < range[1]) {
+                ranges.add(new int[] { key + 1, range[1], max(key + 1, range[1]) });
+            }
+        }
+        return result;
+    }
+
+    /** The key in {@code [from, to)} that ranks first. */
+    private int max(int from, int to) {
+        int j = 31 - Integer.numberOfLeadingZeros(to - from);
+        return better(best[j][from], best[j][to - (1 << j)]);
+    }
+
+    private int better(int a, int b) {
+        double wa = weights[keyText[a]];
+        double wb = weights[keyText[b]];
+        if (wa != wb) {
+            return wa > wb ? a : b;
+        }
+        return keyText[a] <= keyText[b] ? a : b;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
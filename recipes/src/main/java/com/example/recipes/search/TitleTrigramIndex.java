@@ -0,0 +1,132 @@
+package com.example.recipes.search;
+
+import java.nio.LongBuffer;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.util.DatasetVersion;
+import com.example.recipes.util.DatasetVersionChangedEvent;
+import com.example.recipes.util.RecipesImportedEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Trigram index over recipe titles used by the SQL search path, which would otherwise
+ * fall back to a full scan for {@code LOWER(title) LIKE '%x%'}.
+ * Rebuilt after every import, and at startup unless {@link SearchSnapshotStore} has a
+ * snapshot of the current dataset version to map instead.
+ */
+@Component
+@ConditionalOnProperty(name = "recipes.search.title-index", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TitleTrigramIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TitleTrigramIndex.class);
+
+    private static final String SNAPSHOT = "title-trigrams";
+
+    private final RecipeRepository recipeRepository;
+    private final SearchSnapshotStore snapshots;
+    private final DatasetVersion datasetVersion;
+
+    private volatile Snapshot snapshot;
+
+    private static final class Snapshot {
+        final LongBuffer ids;
+        final TrigramIndex index;
+
+        Snapshot(LongBuffer ids, TrigramIndex index) {
+            this.ids = ids;
+            this.index = index;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        SnapshotFile file = snapshots.open(SNAPSHOT);
+        if (file != null) {
+            try {
+                snapshot = new Snapshot(file.longs("ids"), TrigramIndex.read(file, "title"));
+                logger.info("Mapped title trigram index of dataset version {} in {} ms",
+                        file.version(), (System.nanoTime() - start) / 1_000_000);
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Rebuilding title trigram index, snapshot is unusable: {}", e.getMessage());
+            }
+        }
+        rebuild();
+        if (snapshot != null) {
+            save(datasetVersion.current());
+        }
+    }
+
+    public void rebuild() {
+        try {
+            long start = System.nanoTime();
+            List<Object[]> rows = recipeRepository.findAllTitles();
+            long[] ids = new long[rows.size()];
+            String[] titles = new String[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = ((Number) rows.get(i)[0]).longValue();
+                titles[i] = (String) rows.get(i)[1];
+            }
+            TrigramIndex index = TrigramIndex.build(titles);
+            snapshot = new Snapshot(LongBuffer.wrap(ids), index);
+            logger.info("Built title trigram index: {} titles, {} trigrams in {} ms",
+                    ids.length, index.trigramCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build title trigram index: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener(RecipesImportedEvent.class)
+    public void onImport() {
+        if (snapshot != null) {
+            rebuild();
+        }
+    }
+
+    @EventListener
+    public void onVersionChanged(DatasetVersionChangedEvent event) {
+        if (snapshot != null) {
+            save(event.getVersion());
+        }
+    }
+
+    private void save(DatasetVersion.Snapshot version) {
+        Snapshot s = snapshot;
+        snapshots.save(SNAPSHOT, version, out -> {
+            out.longs("ids", s.ids);
+            s.index.write(out, "title");
+        });
+    }
+
+    /**
+     * Ids of recipes whose title contains {@code pattern}, ignoring case, or {@code null}
+     * when the caller has to fall back to SQL: the index is not built yet, the pattern is
+     * shorter than a trigram, or it contains LIKE wildcards that SQL would interpret.
+     */
+    public long[] findIds(String pattern) {
+        Snapshot s = snapshot;
+        if (s == null || pattern.indexOf('%') >= 0 || pattern.indexOf('_') >= 0 || pattern.indexOf('\\') >= 0) {
+            return null;
+        }
+        int[] docs = s.index.search(pattern);
+        if (docs == null) {
+            return null;
+        }
+        long[] ids = new long[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            ids[i] = s.ids.get(docs[i]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.recipes.search;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram inverted index for substring search ignoring case and accents, as MySQL's default
+ * {@code utf8mb4_0900_ai_ci} collation does for {@code LIKE}: texts and patterns are both
+ * {@link #fold folded}, so "creme" finds "Crème". Expansions such as "ß" matching "ss" are
+ * not applied.
+ * Documents are addressed by their position in the input array; each posting list is
+ * stored as a varint count followed by varint-encoded gaps between ascending positions.
+ * Queries intersect the postings of every trigram in the pattern and then verify the
+ * surviving candidates, so results are exact.
+ * <p>
+ * Trigrams are kept sorted next to the offsets of their lists in one byte buffer, so the
+ * index can be written to a {@link SnapshotFile} and searched straight from the mapping.
+ */
+public final class TrigramIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    /** Folded texts, for verifying candidates. */
+    private final StringColumn texts;
+    private final LongBuffer keys;
+    /** {@code starts[i]}: offset of the list of {@code keys[i]} in {@link #lists}. */
+    private final IntBuffer starts;
+    private final ByteBuffer lists;
+
+    private TrigramIndex(StringColumn texts, LongBuffer keys, IntBuffer starts, ByteBuffer lists) {
+        this.texts = texts;
+        this.keys = keys;
+        this.starts = starts;
+        this.lists = lists;
+    }
+
+    public static TrigramIndex build(String[] texts) {
+        String[] lower = new String[texts.length];
+        Map<Long, Postings> builders = new HashMap<>();
+        for (int doc = 0; doc < texts.length; doc++) {
+            lower[doc] = texts[doc] != null ? fold(texts[doc]) : "";
+            String s = lower[doc];
+            for (int i = 0; i + MIN_QUERY_LENGTH <= s.length(); i++) {
+                builders.computeIfAbsent(key(s, i), k -> new Postings()).addOnce(doc);
+            }
+        }
+        long[] keys = builders.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] starts = new int[keys.length];
+        ByteArrayOutputStream lists = new ByteArrayOutputStream();
+        for (int i = 0; i < keys.length; i++) {
+            Postings p = builders.get(keys[i]);
+            starts[i] = lists.size();
+            lists.writeBytes(encode(p.values, p.size));
+        }
+        return new TrigramIndex(StringColumn.of(lower), LongBuffer.wrap(keys), IntBuffer.wrap(starts),
+                ByteBuffer.wrap(lists.toByteArray()));
+    }
+
+    /** The index written by {@link #write} under {@code name}, searched in place. */
+    public static TrigramIndex read(SnapshotFile file, String name) {
+        return new TrigramIndex(StringColumn.read(file, name + ".texts"), file.longs(name + ".keys"),
+                file.ints(name + ".starts"), file.bytes(name + ".lists"));
+    }
+
+    public void write(SnapshotFile.Writer out, String name) throws IOException {
+        texts.write(out, name + ".texts");
+        out.longs(name + ".keys", keys).ints(name + ".starts", starts).bytes(name + ".lists", lists);
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    public int trigramCount() {
+        return keys.limit();
+    }
+
+    /** Whether document {@code doc} contains {@code needle}, ignoring case and accents, checked without the postings. */
+    public boolean contains(int doc, String needle) {
+        return texts.contains(doc, fold(needle));
+    }
+
+    /** {@code s} lower-cased independently of the default locale, with combining marks removed. */
+    public static String fold(String s) {
+        String lower = s.toLowerCase(Locale.ROOT);
+        if (isAscii(lower)) {
+            return lower;
+        }
+        return MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Positions of the documents containing {@code pattern}, ascending, or {@code null}
+     * when the pattern is shorter than {@link #MIN_QUERY_LENGTH} and cannot be indexed.
+     */
+    public int[] search(String pattern) {
+        String needle = fold(pattern);
+        if (needle.length() < MIN_QUERY_LENGTH) {
+            return null;
+        }
+
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= needle.length(); i++) {
+            grams.add(key(needle, i));
+        }
+        List<Integer> lists = new ArrayList<>(grams.size());
+        for (Long gram : grams) {
+            int slot = find(gram);
+            if (slot < 0) {
+                return new int[0];
+            }
+            lists.add(starts.get(slot));
+        }
+        lists.sort((a, b) -> Integer.compare(count(a), count(b)));
+
+        int[] candidates = decode(lists.get(0));
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+
+        int n = 0;
+        for (int doc : candidates) {
+            if (texts.contains(doc, needle)) {
+                candidates[n++] = doc;
+            }
+        }
+        return n == candidates.length ? candidates : Arrays.copyOf(candidates, n);
+    }
+
+    private int find(long key) {
+        int lo = 0;
+        int hi = keys.limit() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = keys.get(mid);
+            if (k < key) {
+                lo = mid + 1;
+            } else if (k > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    static byte[] encode(int[] values, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 4);
+        writeVarInt(out, size);
+        int prev = 0;
+        for (int i = 0; i < size; i++) {
+            writeVarInt(out, values[i] - prev);
+            prev = values[i];
+        }
+        return out.toByteArray();
+    }
+
+    static int[] decode(byte[] list) {
+        return decode(ByteBuffer.wrap(list), 0);
+    }
+
+    private int[] decode(int start) {
+        return decode(lists, start);
+    }
+
+    private static int[] decode(ByteBuffer buf, int start) {
+        int[] pos = {start};
+        int n = readVarInt(buf, pos);
+        int[] values = new int[n];
+        int prev = 0;
+        for (int i = 0; i < n; i++) {
+            prev += readVarInt(buf, pos);
+            values[i] = prev;
+        }
+        return values;
+    }
+
+    private int count(int start) {
+        return readVarInt(lists, new int[] {start});
+    }
+
+    private int[] intersect(int[] candidates, int start) {
+        int[] pos = {start};
+        int remaining = readVarInt(lists, pos);
+        int value = 0;
+        int n = 0;
+        int i = 0;
+        while (i < candidates.length && remaining > 0) {
+            value += readVarInt(lists, pos);
+            remaining--;
+            while (i < candidates.length && candidates[i] < value) i++;
+            if (i < candidates.length && candidates[i] == value) {
+                candidates[n++] = value;
+                i++;
+            }
+        }
+        return Arrays.copyOf(candidates, n);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarInt(ByteBuffer buf, int[] pos) {
+        int v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get(pos[0]++);
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return v;
+    }
+
+    private static final class Postings {
+        int[] values = new int[4];
+        int size;
+
+        void addOnce(int v) {
+            if (size > 0 && values[size - 1] == v) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.recipes.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.example.recipes.config.AppConfig;
+import com.example.recipes.config.DataSourceRouting;
+import com.example.recipes.dto.RecipeDto;
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.util.Futures;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Several lookups or searches in one request. Both go through the same cache regions as their
+ * one-at-a-time counterparts, so a batch warms the cache for single requests and the other way
+ * round. Searches also share their single-flight keys with {@code /search}; a lookup's misses
+ * are loaded with one query under a key of their own, since coalescing them id by id with
+ * single lookups would split that query up.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeBatchService.class);
+
+    private final RecipeService recipeService;
+    private final RecipeRepository recipeRepository;
+    private final CacheManager cacheManager;
+    private final SingleFlight singleFlight;
+    private final ExecutorService queryExecutor;
+
+    @Value("${recipes.batch.max-ids:100}")
+    private int maxIds;
+
+    @Value("${recipes.batch.max-searches:10}")
+    private int maxSearches;
+
+    /**
+     * The recipes with the given ids, in request order with duplicates dropped, reading the
+     * {@code recipeById} region first and loading the misses with one {@code IN (...)} query.
+     */
+    public Map<String, Object> getRecipesByIds(List<Long> ids) {
+        if (ids.size() > maxIds) {
+            throw new InvalidSearchParameterException("At most " + maxIds + " ids per request");
+        }
+        Cache cache = cacheManager.getCache(AppConfig.RECIPE_BY_ID);
+        Map<Long, RecipeDto> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        // An empty element, e.g. in ids=1,,2, binds as null
+        LinkedHashSet<Long> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        for (Long id : unique) {
+            Cache.ValueWrapper hit = cache.get(id);
+            if (hit == null) {
+                misses.add(id);
+            } else if (hit.get() != null) {
+                found.put(id, (RecipeDto) hit.get());
+            }
+        }
+        if (!misses.isEmpty()) {
+            found.putAll(singleFlight.execute("recipes:" + misses,
+                    () -> DataSourceRouting.onReplica(() -> fetchByIds(misses, cache))));
+        }
+
+        List<RecipeDto> data = new ArrayList<>(unique.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : unique) {
+            RecipeDto dto = found.get(id);
+            if (dto != null) {
+                data.add(dto);
+            } else {
+                missing.add(id);
+            }
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", data);
+        response.put("missing", missing);
+        return response;
+    }
+
+    private Map<Long, RecipeDto> fetchByIds(List<Long> ids, Cache cache) {
+        logger.debug("Fetching {} recipes by id", ids.size());
+        try {
+            Map<Long, RecipeDto> found = new HashMap<>();
+            recipeRepository.findAllById(ids).forEach(r -> found.put(r.getId(), RecipeDto.from(r)));
+            // Cached the way @Cacheable caches getRecipeById, unknown ids as null
+            for (Long id : ids) {
+                cache.put(id, found.get(id));
+            }
+            return found;
+        } catch (Exception e) {
+            logger.error("Error fetching recipes by ids {}: {}", ids, e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch recipes", e);
+        }
+    }
+
+    /**
+     * Runs the searches side by side through {@link RecipeService#search}, so each is served
+     * from or stored in the search cache and identical ones, here or in other requests, share
+     * one execution. Results come back in request order.
+     */
+    public List<Map<String, Object>> multiSearch(List<RecipeSearchRepository.SearchParams> searches) {
+        if (searches.size() > maxSearches) {
+            throw new InvalidSearchParameterException("At most " + maxSearches + " searches per request");
+        }
+        List<CompletableFuture<Map<String, Object>>> results = new ArrayList<>(searches.size());
+        for (RecipeSearchRepository.SearchParams params : searches) {
+            results.add(CompletableFuture.supplyAsync(() -> recipeService.search(params), queryExecutor));
+        }
+        return results.stream().map(Futures::join).toList();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.recipes.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes the recipe catalogue, optionally filtered, straight to an output stream.
+ * Rows come off a forward-only cursor one at a time as scalars, never as managed entities,
+ * so heap use does not depend on table size, and a slow client slows the cursor down
+ * through blocking writes.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeExportService.class);
+
+    // Same fields, in the same order, as RecipeDto; nutrients is read as its stored JSON text
+    private static final String[] FIELDS = { "id", "title", "cuisine", "rating", "prep_time", "cook_time", "total_time",
+            "description", "nutrients", "serves" };
+    private static final String COLUMNS = "r.id, r.title, r.cuisine, r.rating, r.prep_time, r.cook_time, r.total_time, "
+            + "r.description, CAST(r.nutrients AS CHAR), r.serves";
+    private static final int RATING = 3;
+    private static final int NUTRIENTS = 8;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidSearchParameterException("Invalid format: " + value);
+            }
+        }
+    }
+
+    private final RecipeSearchRepository recipeSearchRepository;
+    private final ObjectMapper objectMapper;
+
+    /** 0 selects MySQL row-by-row streaming ({@code Integer.MIN_VALUE}). */
+    @Value("${recipes.export.fetch-size:0}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long export(RecipeSearchRepository.SearchParams params, Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = format == Format.CSV ? writeCsv(params, out) : writeNdjson(params, out);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is closed with the transaction
+            throw e.getCause();
+        }
+        logger.info("Exported {} recipes as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long writeNdjson(RecipeSearchRepository.SearchParams params, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            return recipeSearchRepository.scroll(params, COLUMNS, jdbcFetchSize(), row -> {
+                try {
+                    gen.writeStartObject();
+                    for (int i = 0; i < FIELDS.length; i++) {
+                        gen.writeFieldName(FIELDS[i]);
+                        Object v = row[i];
+                        if (v == null) {
+                            gen.writeNull();
+                        } else if (i == NUTRIENTS) {
+                            // Stored JSON goes out as-is instead of being parsed and re-encoded
+                            gen.writeRawValue((String) v);
+                        } else if (i == RATING) {
+                            gen.writeNumber(((Number) v).doubleValue());
+                        } else if (v instanceof Number n) {
+                            gen.writeNumber(n.longValue());
+                        } else {
+                            gen.writeString(v.toString());
+                        }
+                    }
+                    gen.writeEndObject();
+                    gen.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private long writeCsv(RecipeSearchRepository.SearchParams params, OutputStream out) throws IOException {
+        try (Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            w.write(String.join(",", FIELDS));
+            w.write('\n');
+            StringBuilder line = new StringBuilder(256);
+            return recipeSearchRepository.scroll(params, COLUMNS, jdbcFetchSize(), row -> {
+                try {
+                    line.setLength(0);
+                    for (int i = 0; i < FIELDS.length; i++) {
+                        if (i > 0) {
+                            line.append(',');
+                        }
+                        Object v = row[i];
+                        if (v instanceof String str) {
+                            csv(line, str);
+                        } else if (v != null) {
+                            line.append(i == RATING ? ((Number) v).doubleValue() : v);
+                        }
+                    }
+                    w.append(line).append('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private int jdbcFetchSize() {
+        return fetchSize > 0 ? fetchSize : Integer.MIN_VALUE;
+    }
+
+    // RFC 4180: quote fields holding separators, quotes or line breaks, doubling inner quotes
+    private static StringBuilder csv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
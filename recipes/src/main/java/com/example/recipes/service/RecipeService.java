@@ -1,5 +1,6 @@
 package com.example.recipes.service;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -7,13 +8,20 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import com.example.recipes.config.AppConfig;
+import com.example.recipes.config.DataSourceRouting;
 import com.example.recipes.dto.RecipeDto;
 import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.CuisineDictionary;
+import com.example.recipes.repo.InvalidSearchParameterException;
 import com.example.recipes.repo.RecipeRepository;
 import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.util.RecipesImportedEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
@@ -26,13 +34,20 @@ public class RecipeService {
     private final RecipeRepository recipeRepository;
     private final RecipeSearchRepository recipeSearchRepository;
     private final ObjectMapper objectMapper;
+    private final SingleFlight singleFlight;
+    private final CuisineDictionary cuisineDictionary;
 
     public List<Recipe> getAllRecipes() {
         logger.debug("Fetching all recipes");
         return recipeRepository.findAll();
     }
 
+    @Cacheable(AppConfig.RECIPE_BY_ID)
     public Optional<RecipeDto> getRecipeById(Long id) {
+        return singleFlight.execute("recipe:" + id, () -> DataSourceRouting.onReplica(() -> fetchRecipeById(id)));
+    }
+
+    private Optional<RecipeDto> fetchRecipeById(Long id) {
         logger.debug("Fetching recipe by ID: {}", id);
         try {
             return recipeRepository.findById(id)
@@ -43,79 +58,119 @@ public class RecipeService {
         }
     }
 
-    public Map<String, Object> listAll(int page, int limit) {
-        logger.debug("Fetching recipes page {} with limit {}", page, limit);
+    @Cacheable(cacheNames = AppConfig.RECIPE_LIST, key = "#params.cacheKey()")
+    public Map<String, Object> listAll(RecipeSearchRepository.SearchParams params) {
+        return singleFlight.execute("list:" + params.cacheKey(), () -> DataSourceRouting.onReplica(() -> fetchPage(params)));
+    }
+
+    private Map<String, Object> fetchPage(RecipeSearchRepository.SearchParams params) {
+        logger.debug("Fetching recipes page {} with limit {}", params.page, params.limit);
         try {
-            RecipeSearchRepository.SearchParams params = new RecipeSearchRepository.SearchParams();
-            params.page = page;
-            params.limit = limit;
-            
             RecipeSearchRepository.PagedResult result = recipeSearchRepository.search(params);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("page", page);
-            response.put("limit", limit);
-            response.put("total", result.total);
-            response.put("data", result.data);
+            response.put("page", params.page);
+            response.put("limit", params.limit);
+            putTotal(response, result);
+            response.put("data", pageData(result));
+            response.put("next", result.next);
             
-            logger.info("Fetched {} recipes (page {}, limit {})", result.data.size(), page, limit);
+            logger.info("Fetched {} recipes (page {}, limit {})", pageSize(result), params.page, params.limit);
             return response;
+        } catch (InvalidSearchParameterException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching recipes list: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to fetch recipes list", e);
         }
     }
 
-    public Map<String, Object> search(String calories, String title, String cuisine, String totalTime, String rating, Integer page, Integer limit) {
-        logger.debug("Searching recipes with filters - calories: {}, title: {}, cuisine: {}, totalTime: {}, rating: {}, page: {}, limit: {}",
-                calories, title, cuisine, totalTime, rating, page, limit);
+    @Cacheable(cacheNames = AppConfig.RECIPE_SEARCH, key = "#params.cacheKey()")
+    public Map<String, Object> search(RecipeSearchRepository.SearchParams params) {
+        return singleFlight.execute("search:" + params.cacheKey(), () -> DataSourceRouting.onReplica(() -> runSearch(params)));
+    }
+
+    private Map<String, Object> runSearch(RecipeSearchRepository.SearchParams params) {
+        logger.debug("Searching recipes with filters - calories: {}, title: {}, cuisine: {}, totalTime: {}, rating: {}, page: {}, limit: {}, cursor: {}",
+                params.caloriesExpr, params.title, params.cuisine, params.totalTimeExpr, params.ratingExpr, params.page, params.limit, params.cursor);
         
         try {
-            RecipeSearchRepository.SearchParams params = new RecipeSearchRepository.SearchParams();
-            params.caloriesExpr = calories;
-            params.title = title;
-            params.cuisine = cuisine;
-            params.totalTimeExpr = totalTime;
-            params.ratingExpr = rating;
-            params.page = page != null ? page : 1;
-            params.limit = limit != null ? limit : 10;
-            
             RecipeSearchRepository.PagedResult result = recipeSearchRepository.search(params);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("data", result.data);
+            putTotal(response, result);
+            response.put("data", pageData(result));
+            response.put("next", result.next);
+            if (result.facets != null) {
+                response.put("facets", result.facets);
+            }
             
-            logger.info("Search found {} recipes with given filters", result.data.size());
+            logger.info("Search found {} recipes with given filters", pageSize(result));
             return response;
+        } catch (InvalidSearchParameterException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error searching recipes: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to search recipes", e);
         }
     }
 
-    @Cacheable("recipeStatistics")
+    @EventListener(RecipesImportedEvent.class)
+    @CacheEvict(cacheNames = {AppConfig.RECIPE_STATISTICS, AppConfig.RECIPE_SEARCH, AppConfig.RECIPE_LIST,
+            AppConfig.RECIPE_BY_ID, AppConfig.RECIPE_COUNTS}, allEntries = true)
+    public void onImport(RecipesImportedEvent event) {
+        logger.info("Evicting recipe caches after import of {} changes", event.getImported());
+    }
+
+    private static List<?> pageData(RecipeSearchRepository.PagedResult result) {
+        return result.summaries != null ? result.summaries : result.data.stream().map(RecipeDto::from).toList();
+    }
+
+    private static int pageSize(RecipeSearchRepository.PagedResult result) {
+        return result.summaries != null ? result.summaries.size() : result.data.size();
+    }
+
+    private static void putTotal(Map<String, Object> response, RecipeSearchRepository.PagedResult result) {
+        if (result.total != null) {
+            response.put("total", result.total);
+            if (result.estimated) {
+                response.put("totalEstimated", true);
+            }
+        }
+        response.put("hasMore", result.hasMore);
+    }
+
+    @Cacheable(AppConfig.RECIPE_STATISTICS)
     public Map<String, Object> getStatistics() {
+        return singleFlight.execute("statistics", () -> DataSourceRouting.onReplica(this::computeStatistics));
+    }
+
+    private Map<String, Object> computeStatistics() {
         logger.debug("Fetching recipe statistics");
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
-           
-            long totalRecipes = recipeRepository.count();
-            stats.put("totalRecipes", totalRecipes);
-      
-            List<Object[]> cuisineCounts = recipeRepository.countByCuisine();
+            // The importer keeps per-cuisine aggregates in the dictionary; totals are their sums
+            long totalRecipes = 0;
+            long rated = 0;
+            BigDecimal ratingSum = BigDecimal.ZERO;
+            long timed = 0;
+            long totalTimeSum = 0;
             Map<String, Long> cuisineStats = new HashMap<>();
-            for (Object[] result : cuisineCounts) {
-                cuisineStats.put((String) result[0], (Long) result[1]);
+            for (CuisineDictionary.Aggregate a : cuisineDictionary.aggregates()) {
+                totalRecipes += a.recipes;
+                rated += a.rated;
+                ratingSum = ratingSum.add(a.ratingSum);
+                timed += a.timed;
+                totalTimeSum += a.totalTimeSum;
+                if (!a.name.isEmpty() && a.recipes > 0) {
+                    cuisineStats.put(a.name, a.recipes);
+                }
             }
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalRecipes", totalRecipes);
             stats.put("recipesByCuisine", cuisineStats);
-      
-            Double averageRating = recipeRepository.getAverageRating();
-            stats.put("averageRating", averageRating != null ? Math.round(averageRating * 100.0) / 100.0 : 0);
-            
-        
-            Double averageTotalTime = recipeRepository.getAverageTotalTime();
-            stats.put("averageTotalTime", averageTotalTime != null ? Math.round(averageTotalTime) : 0);
+            stats.put("averageRating", rated > 0 ? Math.round(ratingSum.doubleValue() / rated * 100.0) / 100.0 : 0);
+            stats.put("averageTotalTime", timed > 0 ? Math.round((double) totalTimeSum / timed) : 0);
             
             logger.info("Fetched statistics: {} total recipes, {} cuisines", totalRecipes, cuisineStats.size());
             return stats;
@@ -0,0 +1,58 @@
+package com.example.recipes.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.recipes.util.Futures;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces identical concurrent computations: the first caller for a key runs the work,
+ * callers arriving while it is in flight wait for and share its result (or exception).
+ * Nothing is retained once the computation finishes; caching stays with the cache regions.
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(MeterRegistry registry) {
+        this.executed = Counter.builder("recipes.singleflight.calls")
+                .description("Service calls that ran their computation")
+                .tag("result", "executed")
+                .register(registry);
+        this.coalesced = Counter.builder("recipes.singleflight.calls")
+                .description("Service calls that joined an identical in-flight computation")
+                .tag("result", "coalesced")
+                .register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) Futures.join(leader);
+        }
+
+        executed.increment();
+        try {
+            T result = work.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
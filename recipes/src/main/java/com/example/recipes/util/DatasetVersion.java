@@ -0,0 +1,64 @@
+package com.example.recipes.util;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Version of the recipe data, kept in the single-row {@code dataset_version} table so that it
+ * survives restarts. Whatever changes the recipes table calls {@link #bump()} once the change is
+ * visible to readers, i.e. after caches and indexes have caught up; HTTP validators derive from it.
+ * Every bump publishes a {@link DatasetVersionChangedEvent}.
+ * <p>
+ * The version is read once and then only changed by this instance's own bumps. That is deliberate:
+ * the caches and indexes the version vouches for are also only rebuilt here, so picking up another
+ * instance's bump would tag stale data as current. Validators are therefore only sound with a single
+ * instance.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatasetVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetVersion.class);
+
+    public static final class Snapshot {
+        public final long version;
+        public final Instant updatedAt;
+
+        public Snapshot(long version, Instant updatedAt) {
+            this.version = version;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot current;
+
+    public Snapshot current() {
+        Snapshot s = current;
+        return s != null ? s : refresh();
+    }
+
+    public Snapshot bump() {
+        jdbcTemplate.update("UPDATE dataset_version SET version = version + 1, updated_at = CURRENT_TIMESTAMP(3) WHERE id = 1");
+        Snapshot s = refresh();
+        logger.info("Dataset version is now {}", s.version);
+        eventPublisher.publishEvent(new DatasetVersionChangedEvent(s));
+        return s;
+    }
+
+    private Snapshot refresh() {
+        Snapshot s = jdbcTemplate.queryForObject("SELECT version, updated_at FROM dataset_version WHERE id = 1",
+                (rs, i) -> new Snapshot(rs.getLong(1), rs.getTimestamp(2).toInstant()));
+        current = s;
+        return s;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.recipes.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by {@link DatasetVersion} after every bump, once the structures derived from the
+ * recipes table have caught up with it, so that they can be saved under the new version.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DatasetVersionChangedEvent {
+    private final DatasetVersion.Snapshot version;
+}
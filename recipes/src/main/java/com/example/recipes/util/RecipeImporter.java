@@ -1,79 +1,540 @@
 package com.example.recipes.util;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.CuisineDictionary;
 import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.search.IngredientTokens;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Streams recipes from the import file into the database.
+ * Records are read one at a time with the Jackson token API, mapped and validated by a pool
+ * of workers in chunks, and written with one multi-row INSERT per chunk. At most
+ * {@code 2 * workers} chunks are in flight, so memory stays flat regardless of file size.
+ * Every row stores a fingerprint of its source key and content, which incremental imports
+ * compare against to apply only the delta. Each chunk's rows and the change they make to the
+ * per-cuisine aggregates of {@link CuisineDictionary} commit in one transaction.
+ */
 @Component
 @RequiredArgsConstructor
 public class RecipeImporter implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(RecipeImporter.class);
-    
+
+    private static final String LEGACY_IMPORT_PATH = "classpath:US_recipes_null.json";
+    private static final String INSERT_COLUMNS = "INSERT INTO recipes (cuisine, cuisine_id, title, rating, prep_time, cook_time, total_time, "
+            + "description, url, ingredients, ingredient_tokens, instructions, nutrients, serves, source_hash, content_hash) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_BY_SOURCE = "UPDATE recipes SET cuisine = ?, cuisine_id = ?, title = ?, rating = ?, prep_time = ?, "
+            + "cook_time = ?, total_time = ?, description = ?, url = ?, ingredients = ?, ingredient_tokens = ?, instructions = ?, nutrients = ?, "
+            + "serves = ?, content_hash = ? WHERE source_hash = ?";
+    private static final TypeReference<Map<String, Object>> RAW_RECIPE = new TypeReference<>() {};
+
     private final RecipeRepository recipeRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final ResourceLoader resourceLoader;
+    private final Validator validator;
+    private final DatasetVersion datasetVersion;
+    private final CuisineDictionary cuisines;
+    private final TransactionTemplate transactionTemplate;
+
+    private ObjectWriter canonicalWriter;
+
+    @Value("${recipes.import-on-start:true}")
+    private boolean importOnStart;
+
+    @Value("${app.import.path:" + LEGACY_IMPORT_PATH + "}")
+    private String importPath;
+
+    /** "full" loads an empty table once; "incremental" applies the feed's delta on every start. */
+    @Value("${recipes.import.mode:full}")
+    private String importMode;
+
+    @Value("${recipes.import.batch-size:500}")
+    private int batchSize;
+
+    /** Mapping/insert workers; 0 means one per available processor. */
+    @Value("${recipes.import.workers:0}")
+    private int workers;
+
+    /** How long the workers get to write the submitted chunks once the feed has been read. */
+    @Value("${recipes.import.timeout:1h}")
+    private Duration timeout;
+
+    /** Largest share of the table an incremental import deletes; a feed missing more looks truncated. */
+    @Value("${recipes.import.max-delete-ratio:0.5}")
+    private double maxDeleteRatio;
+
+    @PostConstruct
+    void init() {
+        // Raw records are nested maps, so sorted map keys make the JSON canonical
+        canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
 
     @Override
     public void run(String... args) {
-        if (recipeRepository.count() > 0) {
-            logger.info("Recipes already in database, skipping import.");
+        if (!importOnStart) {
+            logger.info("Recipe import on start is disabled.");
             return;
         }
-
-        try {
-            InputStream is = getClass().getClassLoader().getResourceAsStream("US_recipes_null.json");
-            if (is == null) {
-                logger.warn("Could not find US_recipes_null.json in classpath");
+        boolean incremental = "incremental".equalsIgnoreCase(importMode);
+        if (!incremental && recipeRepository.count() > 0) {
+            if (!hasStaleRows()) {
+                logger.info("Recipes already in database, skipping import.");
                 return;
             }
+            logger.info("Recipes in database predate a schema migration, re-syncing them with the import file.");
+            incremental = true;
+        }
 
-            logger.info("Starting recipe data import...");
-            
+        Resource resource = resourceLoader.getResource(importPath);
+        if (!resource.exists()) {
+            resource = resourceLoader.getResource(LEGACY_IMPORT_PATH);
+        }
+        if (!resource.exists()) {
+            logger.warn("Could not find recipe import file at {}", importPath);
+            return;
+        }
+
+        try (InputStream is = resource.getInputStream()) {
+            logger.info("Starting {} recipe data import from {} ({} workers, batch size {})...",
+                    incremental ? "incremental" : "full", resource.getDescription(), workerCount(), Math.max(1, batchSize));
+            ImportResult result = incremental ? syncFrom(is) : importFrom(is);
+            if (result.failed) {
+                logger.error("Recipe import did not apply the whole feed{}",
+                        incremental ? "; recipes missing from it were not deleted" : "");
+            }
+            // Chunks that did commit are visible either way, so caches and indexes have to follow
+            if (result.changed() > 0) {
+                eventPublisher.publishEvent(new RecipesImportedEvent((int) result.changed()));
+                // Listeners run synchronously, so caches and indexes are current before clients see the new version
+                datasetVersion.bump();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to import recipes: {}", e.getMessage(), e);
+        }
+    }
 
-            Map<String, Map<String, Object>> root =
-                    objectMapper.readValue(is, new TypeReference<>() {});
-            List<Map<String, Object>> rawList = new ArrayList<>(root.values());
+    /**
+     * Inserts every record of a JSON object or array of recipes. A feed that cannot be read to
+     * the end is {@link ImportResult#failed}; the chunks read before that are still written.
+     */
+    public ImportResult importFrom(InputStream is) throws Exception {
+        return importFrom(is, null);
+    }
 
-            List<Recipe> recipes = new ArrayList<>();
-            int processed = 0;
+    /**
+     * Applies only the difference between the feed and the table: new source keys are
+     * inserted, changed content is updated in place, and rows whose key is missing from
+     * the feed are deleted. Every chunk commits separately, so readers never see an empty
+     * or locked table. An import that does not finish, fails to write a chunk, or would delete
+     * more than {@code recipes.import.max-delete-ratio} of the table is {@link ImportResult#failed}
+     * and deletes nothing.
+     */
+    public ImportResult syncFrom(InputStream is) throws Exception {
+        long start = System.nanoTime();
+        SourceHashIndex existing = loadSourceHashes();
+        logger.info("Loaded content hashes of existing recipes in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return importFrom(is, existing);
+    }
 
-            for (Map<String, Object> raw : rawList) {
-                try {
-                    Recipe recipe = mapRawDataToRecipe(raw);
-                    recipes.add(recipe);
-                    processed++;
-                    
-                    if (processed % 1000 == 0) {
-                        logger.info("Processed {} recipes...", processed);
+    private ImportResult importFrom(InputStream is, SourceHashIndex existing) throws Exception {
+        int poolSize = workerCount();
+        int chunkSize = Math.max(1, batchSize);
+        Progress progress = new Progress();
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        Semaphore inFlight = new Semaphore(poolSize * 2);
+
+        boolean finished = false;
+        List<SourceRecord> chunk = new ArrayList<>(chunkSize);
+        try {
+            try (JsonParser parser = objectMapper.getFactory().createParser(is)) {
+                JsonToken root = parser.nextToken();
+                if (root != JsonToken.START_OBJECT && root != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Expected a JSON object or array of recipes");
+                }
+                JsonToken end = root == JsonToken.START_OBJECT ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+
+                JsonToken token;
+                int position = 0;
+                while ((token = parser.nextToken()) != end && token != null) {
+                    String key = String.valueOf(position++);
+                    if (token == JsonToken.FIELD_NAME) {
+                        key = parser.currentName();
+                        token = parser.nextToken();
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        logger.warn("Skipping recipe {}: not a JSON object", key);
+                        progress.skipped.incrementAndGet();
+                        parser.skipChildren();
+                        if (existing != null) {
+                            // Without its source key it cannot be marked, so its stored row would look deleted
+                            progress.failed = true;
+                        }
+                        continue;
+                    }
+                    chunk.add(new SourceRecord(key, parser.readValueAs(RAW_RECIPE)));
+                    if (chunk.size() == chunkSize) {
+                        submit(pool, inFlight, chunk, existing, progress);
+                        chunk = new ArrayList<>(chunkSize);
                     }
-                } catch (Exception e) {
-                    logger.warn("Failed to process recipe: {}", e.getMessage());
                 }
+            } catch (IOException e) {
+                // Chunks already submitted still commit, so the caller has to refresh caches and indexes
+                logger.error("Failed to read the import feed: {}", e.getMessage());
+                progress.failed = true;
             }
+            if (!chunk.isEmpty()) {
+                submit(pool, inFlight, chunk, existing, progress);
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                finished = pool.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } finally {
+                if (!finished) {
+                    pool.shutdownNow();
+                }
+            }
+        }
 
+        if (!finished) {
+            // Records of unfinished chunks were never marked, so their rows would look deleted
+            logger.error("Import did not finish within recipes.import.timeout={}; cancelled the remaining chunks", timeout);
+            progress.failed = true;
+        } else if (existing != null) {
+            deleteMissing(existing, chunkSize, progress);
+        }
+        progress.log(progress.failed ? "Failed import:" : "Finished import:");
+        return progress.result();
+    }
+
+    private int workerCount() {
+        return workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    }
+
+    private void submit(ExecutorService pool, Semaphore inFlight, List<SourceRecord> chunk,
+                        SourceHashIndex existing, Progress progress) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            pool.execute(() -> {
+                try {
+                    writeChunk(chunk, existing, progress);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void writeChunk(List<SourceRecord> chunk, SourceHashIndex existing, Progress progress) {
+        List<HashedRecipe> inserts = new ArrayList<>(chunk.size());
+        List<HashedRecipe> updates = new ArrayList<>();
+        for (SourceRecord record : chunk) {
+            boolean marked = existing == null;
+            try {
+                long sourceHash = sourceHash(record);
+                long contentHash = contentHash(record.raw);
+                // Marked before mapping, so a record that fails to map or validate keeps its stored row
+                int change = existing != null ? existing.mark(sourceHash, contentHash) : SourceHashIndex.NEW;
+                marked = true;
+                if (change == SourceHashIndex.UNCHANGED) {
+                    progress.unchanged.incrementAndGet();
+                } else if (change == SourceHashIndex.DUPLICATE) {
+                    logger.warn("Skipping duplicate recipe in feed: {}", record.key);
+                    progress.skipped.incrementAndGet();
+                } else {
+                    HashedRecipe hashed = new HashedRecipe(mapRawDataToRecipe(record.raw), sourceHash, contentHash);
+                    if (!validator.validate(hashed.recipe).isEmpty()) {
+                        logger.warn("Skipping invalid recipe: {}", record.raw.get("title"));
+                        progress.skipped.incrementAndGet();
+                    } else {
+                        hashed.recipe.setCuisineId(cuisines.resolve(hashed.recipe.getCuisine()));
+                        (change == SourceHashIndex.NEW ? inserts : updates).add(hashed);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to process recipe: {}", e.getMessage());
+                progress.skipped.incrementAndGet();
+                if (!marked) {
+                    // Its stored row would look deleted
+                    progress.failed = true;
+                }
+            }
+        }
 
-            recipeRepository.saveAll(recipes);
-            logger.info("Successfully imported {} recipes", recipes.size());
-            
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                CuisineDictionary.Changes changes = new CuisineDictionary.Changes();
+                if (!inserts.isEmpty()) {
+                    insertBatch(inserts, changes);
+                }
+                if (!updates.isEmpty()) {
+                    updateBatch(updates, changes);
+                }
+                cuisines.apply(changes);
+            });
+            progress.inserted.addAndGet(inserts.size());
+            progress.updated.addAndGet(updates.size());
         } catch (Exception e) {
-            logger.error("Failed to import recipes: {}", e.getMessage(), e);
+            logger.error("Failed to write batch of {} recipes: {}", inserts.size() + updates.size(), e.getMessage(), e);
+            progress.skipped.addAndGet(inserts.size() + updates.size());
+            progress.failed = true;
+        }
+        progress.processed(chunk.size());
+    }
+
+    private void insertBatch(List<HashedRecipe> recipes, CuisineDictionary.Changes changes) {
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNS.length() + recipes.size() * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_COLUMNS);
+        List<Object> args = new ArrayList<>(recipes.size() * 16);
+        for (int i = 0; i < recipes.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_PLACEHOLDERS);
+            HashedRecipe hashed = recipes.get(i);
+            args.addAll(Arrays.asList(columnValues(hashed.recipe)));
+            args.add(hashed.sourceHash);
+            args.add(hashed.contentHash);
+            changes.add(hashed.recipe.getCuisineId(), hashed.recipe.getRating(), hashed.recipe.getTotal_time());
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private void updateBatch(List<HashedRecipe> recipes, CuisineDictionary.Changes changes) {
+        List<Object[]> rows = new ArrayList<>(recipes.size());
+        List<Long> sourceHashes = new ArrayList<>(recipes.size());
+        for (HashedRecipe hashed : recipes) {
+            Object[] values = Arrays.copyOf(columnValues(hashed.recipe), 16);
+            values[14] = hashed.contentHash;
+            values[15] = hashed.sourceHash;
+            rows.add(values);
+            sourceHashes.add(hashed.sourceHash);
+            changes.add(hashed.recipe.getCuisineId(), hashed.recipe.getRating(), hashed.recipe.getTotal_time());
+        }
+        removeStored(sourceHashes, changes);
+        jdbcTemplate.batchUpdate(UPDATE_BY_SOURCE, rows);
+    }
+
+    /** Takes the rows about to be overwritten or deleted out of the aggregates. */
+    private void removeStored(List<Long> sourceHashes, CuisineDictionary.Changes changes) {
+        String placeholders = String.join(", ", Collections.nCopies(sourceHashes.size(), "?"));
+        jdbcTemplate.query("SELECT cuisine_id, rating, total_time FROM recipes WHERE source_hash IN (" + placeholders + ")",
+                (RowCallbackHandler) rs -> {
+                    BigDecimal rating = rs.getBigDecimal(2);
+                    changes.remove(rs.getObject(1, Integer.class), rating != null ? rating.doubleValue() : null,
+                            rs.getObject(3, Integer.class));
+                }, sourceHashes.toArray());
+    }
+
+    private Object[] columnValues(Recipe r) {
+        return new Object[] {
+                r.getCuisine(), r.getCuisineId(), r.getTitle(), r.getRating(), r.getPrep_time(), r.getCook_time(), r.getTotal_time(),
+                r.getDescription(), r.getUrl(), r.getIngredients(), r.getIngredientTokens(), r.getInstructions(),
+                r.getNutrients(),
+                r.getServes()
+        };
+    }
+
+    /** Rows whose content hash a schema migration cleared, because they lack columns only the importer fills. */
+    private boolean hasStaleRows() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM recipes WHERE content_hash IS NULL)", Boolean.class));
+    }
+
+    private SourceHashIndex loadSourceHashes() {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM recipes WHERE source_hash IS NOT NULL", Long.class);
+        SourceHashIndex index = new SourceHashIndex(rows != null ? rows.intValue() : 0);
+        // A cleared content hash reads as 0, which no record hashes to, so the row is rewritten
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT source_hash, content_hash FROM recipes WHERE source_hash IS NOT NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> index.put(rs.getLong(1), rs.getLong(2)));
+        return index;
+    }
+
+    private void deleteMissing(SourceHashIndex existing, int chunkSize, Progress progress) {
+        if (progress.failed) {
+            logger.error("Not deleting recipes missing from the feed: part of the feed was not applied");
+            return;
+        }
+        int unseen = existing.unseen();
+        if (unseen > existing.stored() * maxDeleteRatio) {
+            logger.error("Not deleting {} of {} recipes missing from the feed: more than recipes.import.max-delete-ratio={} "
+                    + "looks like an empty or truncated feed", unseen, existing.stored(), maxDeleteRatio);
+            progress.failed = true;
+            return;
+        }
+        List<Long> missing = new ArrayList<>(chunkSize);
+        existing.forEachUnseen(key -> {
+            missing.add(key);
+            if (missing.size() == chunkSize) {
+                progress.deleted.addAndGet(deleteBySource(missing));
+                missing.clear();
+            }
+        });
+        if (!missing.isEmpty()) {
+            progress.deleted.addAndGet(deleteBySource(missing));
+        }
+    }
+
+    private int deleteBySource(List<Long> sourceHashes) {
+        String placeholders = String.join(", ", Collections.nCopies(sourceHashes.size(), "?"));
+        return transactionTemplate.execute(status -> {
+            CuisineDictionary.Changes changes = new CuisineDictionary.Changes();
+            removeStored(sourceHashes, changes);
+            int deleted = jdbcTemplate.update("DELETE FROM recipes WHERE source_hash IN (" + placeholders + ")", sourceHashes.toArray());
+            cuisines.apply(changes);
+            return deleted;
+        });
+    }
+
+    /** Recipes are identified by their URL, or by their key in the feed when they have none. */
+    private static long sourceHash(SourceRecord record) {
+        Object url = record.raw.get("URL");
+        String key = url instanceof String s && !s.isBlank() ? "url:" + s : "key:" + record.key;
+        return fingerprint(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long contentHash(Map<String, Object> raw) throws Exception {
+        return fingerprint(canonicalWriter.writeValueAsBytes(raw));
+    }
+
+    /** First 64 bits of the SHA-256 digest. */
+    private static long fingerprint(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class SourceRecord {
+        final String key;
+        final Map<String, Object> raw;
+
+        SourceRecord(String key, Map<String, Object> raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+    }
+
+    private static final class HashedRecipe {
+        final Recipe recipe;
+        final long sourceHash;
+        final long contentHash;
+
+        HashedRecipe(Recipe recipe, long sourceHash, long contentHash) {
+            this.recipe = recipe;
+            this.sourceHash = sourceHash;
+            this.contentHash = contentHash;
         }
     }
 
-    private Recipe mapRawDataToRecipe(Map<String, Object> raw) {
+    public static class ImportResult {
+        public long inserted;
+        public long updated;
+        public long unchanged;
+        public long deleted;
+        public long skipped;
+        /** Part of the feed was not applied, or it looked truncated; nothing was deleted. */
+        public boolean failed;
+
+        public long changed() {
+            return inserted + updated + deleted;
+        }
+    }
+
+    private static final class Progress {
+        final long started = System.nanoTime();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong inserted = new AtomicLong();
+        final AtomicLong updated = new AtomicLong();
+        final AtomicLong unchanged = new AtomicLong();
+        final AtomicLong deleted = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong nextReport = new AtomicLong(10_000);
+        volatile boolean failed;
+
+        void processed(int count) {
+            long total = processed.addAndGet(count);
+            long threshold = nextReport.get();
+            if (total >= threshold && nextReport.compareAndSet(threshold, threshold + 10_000)) {
+                log("Import progress:");
+            }
+        }
+
+        void log(String prefix) {
+            double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+            logger.info("{} {} records read in {} s ({} records/s): {} inserted, {} updated, {} unchanged, {} deleted, {} skipped",
+                    prefix, processed.get(), String.format("%.1f", seconds), Math.round(processed.get() / seconds),
+                    inserted.get(), updated.get(), unchanged.get(), deleted.get(), skipped.get());
+        }
+
+        ImportResult result() {
+            ImportResult r = new ImportResult();
+            r.inserted = inserted.get();
+            r.updated = updated.get();
+            r.unchanged = unchanged.get();
+            r.deleted = deleted.get();
+            r.skipped = skipped.get();
+            r.failed = failed;
+            return r;
+        }
+    }
+
+    Recipe mapRawDataToRecipe(Map<String, Object> raw) {
         Recipe recipe = new Recipe();
         
     
@@ -103,6 +564,10 @@ public class RecipeImporter implements CommandLineRunner {
             } catch (Exception e) {
                 logger.warn("Failed to serialize ingredients: {}", e.getMessage());
             }
+            // Tokenized here, on the import workers, so the ingredient index never parses the JSON
+            if (ingredientsObj instanceof List<?> lines) {
+                recipe.setIngredientTokens(IngredientTokens.of(lines));
+            }
         }
 
     
@@ -119,11 +584,9 @@ public class RecipeImporter implements CommandLineRunner {
         Object nutrientsObj = raw.get("nutrients");
         if (nutrientsObj instanceof Map<?, ?> map) {
             try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> nutrientsMap = (Map<String, Object>) map;
-                recipe.setNutrients(nutrientsMap);
+                recipe.setNutrients(objectMapper.writeValueAsString(map));
             } catch (Exception e) {
-                logger.warn("Failed to set nutrients: {}", e.getMessage());
+                logger.warn("Failed to serialize nutrients: {}", e.getMessage());
             }
         }
 
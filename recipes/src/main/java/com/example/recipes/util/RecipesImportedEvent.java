@@ -0,0 +1,14 @@
+package com.example.recipes.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by {@link RecipeImporter} after recipes have been written to the database,
+ * so that structures derived from the recipes table can refresh themselves.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RecipesImportedEvent {
+    private final int imported;
+}
@@ -0,0 +1,120 @@
+package com.example.recipes.util;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing map from a recipe's source-key hash to its stored content hash, used by
+ * incremental imports to classify incoming records and to find the rows missing from the feed.
+ * Primitive arrays keep it at about 34 bytes per recipe at the 50% load factor.
+ * All methods are synchronized, since import workers mark records concurrently.
+ */
+final class SourceHashIndex {
+
+    /** {@link #mark} result for a key that was not in the table before this import. */
+    static final int NEW = 0;
+    /** {@link #mark} result for a key whose stored content hash matches. */
+    static final int UNCHANGED = 1;
+    /** {@link #mark} result for a key whose stored content hash differs. */
+    static final int CHANGED = 2;
+    /** {@link #mark} result for a key already seen earlier in the same feed. */
+    static final int DUPLICATE = 3;
+
+    private long[] keys;
+    private long[] values;
+    private byte[] state; // 0 = empty slot, 1 = stored, 2 = seen in this import
+    private int size;
+    private int stored;
+
+    SourceHashIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        state = new byte[capacity];
+    }
+
+    synchronized void put(long key, long contentHash) {
+        int slot = slot(key);
+        if (state[slot] == 0) {
+            size++;
+            stored++;
+        }
+        keys[slot] = key;
+        values[slot] = contentHash;
+        state[slot] = 1;
+        if (size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    /** Records that {@code key} is present in the feed and reports how it compares to the table. */
+    synchronized int mark(long key, long contentHash) {
+        int slot = slot(key);
+        byte s = state[slot];
+        if (s == 2) {
+            return DUPLICATE;
+        }
+        state[slot] = 2;
+        if (s == 0) {
+            keys[slot] = key;
+            values[slot] = contentHash;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return NEW;
+        }
+        boolean same = values[slot] == contentHash;
+        values[slot] = contentHash;
+        return same ? UNCHANGED : CHANGED;
+    }
+
+    /** Number of keys stored before this import. */
+    synchronized int stored() {
+        return stored;
+    }
+
+    /** Number of keys stored before this import that the feed has not marked (yet). */
+    synchronized int unseen() {
+        int n = 0;
+        for (byte s : state) {
+            if (s == 1) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Visits the keys stored before this import that the feed never marked. */
+    synchronized void forEachUnseen(LongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (state[i] == 1) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = (int) (key ^ (key >>> 32)) * 0x9E3779B9 & mask;
+        while (state[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        byte[] oldState = state;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        state = new byte[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldState[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                state[slot] = oldState[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.recipes.web;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.example.recipes.util.DatasetVersion;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET for the recipe API. Every response of a read endpoint is a function of the
+ * URL, the negotiated representation, the code that renders it and the {@link DatasetVersion},
+ * so the ETag is built from those and a matching {@code If-None-Match} (or
+ * {@code If-Modified-Since}) gets its 304 here, before the controller runs a query or anything
+ * is serialized.
+ * <p>
+ * {@code Cache-Control} goes only on a 304 or on a 2xx body, the latter added as a
+ * {@link ResponseBodyAdvice} because the body is flushed before {@code postHandle} runs.
+ * An error must not be cached under the tag of the data it failed to render.
+ */
+@ControllerAdvice
+public class ConditionalGetInterceptor implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    /** Request attribute marking a read that passed {@link #preHandle}. */
+    private static final String CACHEABLE = ConditionalGetInterceptor.class.getName() + ".cacheable";
+
+    /** Bumped whenever a response body changes shape, e.g. a field is added to a DTO. */
+    static final int REPRESENTATION = 1;
+
+    private final DatasetVersion datasetVersion;
+    private final String cacheControl;
+    /** Representation and build version, the part of the tag that only a deployment changes. */
+    private final String build;
+    /** Build time in epoch milliseconds, so that {@code If-Modified-Since} also expires on deployment; 0 if unknown. */
+    private final long builtAt;
+
+    public ConditionalGetInterceptor(DatasetVersion datasetVersion,
+            @Value("${recipes.http.max-age:60s}") Duration maxAge,
+            ObjectProvider<BuildProperties> buildProperties) {
+        this.datasetVersion = datasetVersion;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+        BuildProperties info = buildProperties.getIfAvailable();
+        this.build = "r" + REPRESENTATION + (info != null && info.getVersion() != null ? "-" + info.getVersion() : "");
+        this.builtAt = info != null && info.getTime() != null ? info.getTime().toEpochMilli() : 0;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        DatasetVersion.Snapshot version = datasetVersion.current();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        long lastModified = Math.max(version.updatedAt.toEpochMilli(), builtAt);
+        if (new ServletWebRequest(request, response).checkNotModified(etag(request, version, build), lastModified)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            return false;
+        }
+        request.setAttribute(CACHEABLE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+            Class<? extends HttpMessageConverter<?>> converterType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && servletRequest.getServletRequest().getAttribute(CACHEABLE) != null
+                && HttpStatusCode.valueOf(servletResponse.getServletResponse().getStatus()).is2xxSuccessful()) {
+            response.getHeaders().setCacheControl(cacheControl);
+        }
+        return body;
+    }
+
+    /**
+     * Weak validator, since Tomcat only compresses responses without a strong ETag and the
+     * gzip and identity bodies are equivalent. CBOR and JSON are not, so the format is part of it.
+     */
+    static String etag(HttpServletRequest request, DatasetVersion.Snapshot version, String build) {
+        StringBuilder tag = new StringBuilder("W/\"v").append(version.version).append('-').append(build);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains("application/cbor")) {
+            tag.append("-cbor");
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -1,16 +1,28 @@
 package com.example.recipes.web;
 
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.recipes.dto.RecipeDto;
+import com.example.recipes.dto.SearchRequest;
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.search.RecipeSuggestions;
+import com.example.recipes.service.RecipeBatchService;
+import com.example.recipes.service.RecipeExportService;
 import com.example.recipes.service.RecipeService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,13 +34,25 @@ import lombok.RequiredArgsConstructor;
 public class RecipeController {
 
     private final RecipeService service;
+    private final RecipeExportService exportService;
+    private final RecipeBatchService batchService;
+    private final RecipeSuggestions suggestions;
 
     @GetMapping
     public Map<String, Object> getAll(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String fields
     ) {
-        return service.listAll(page, limit);
+        RecipeSearchRepository.SearchParams params = new RecipeSearchRepository.SearchParams();
+        params.page = page;
+        params.limit = limit;
+        params.cursor = cursor;
+        params.count = RecipeSearchRepository.CountMode.parse(count, RecipeSearchRepository.CountMode.EXACT);
+        params.summary = RecipeSearchRepository.SearchParams.isSummary(fields);
+        return service.listAll(params);
     }
 
     @GetMapping("/{id}")
@@ -38,18 +62,55 @@ public class RecipeController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-  
+    /** Several recipes by id in one query, in request order; unknown ids are listed under {@code missing}. */
+    @GetMapping("/batch")
+    public Map<String, Object> getRecipesByIds(@RequestParam List<Long> ids) {
+        return batchService.getRecipesByIds(ids);
+    }
+
+    /** Filters, paging and shape by the names of {@link SearchRequest}, e.g. {@code total_time} and {@code ingredients_any}. */
     @GetMapping("/search")
-    public Map<String, Object> search(
-            @RequestParam(required = false) String calories,
-            @RequestParam(required = false) String title,
-            @RequestParam(required = false) String cuisine,
-            @RequestParam(name = "total_time", required = false) String totalTime,
-            @RequestParam(required = false) String rating,
-            @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer limit
+    public Map<String, Object> search(@ModelAttribute SearchRequest search) {
+        return service.search(search.toParams());
+    }
+
+    /** Typeahead: titles with a word starting with {@code prefix}, best rated first. */
+    @GetMapping("/suggest/titles")
+    public Map<String, Object> suggestTitles(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return Map.of("suggestions", suggestions.titles(prefix, limit));
+    }
+
+    /** Typeahead: cuisines with a word starting with {@code prefix}, weighted by their recipes' ratings. */
+    @GetMapping("/suggest/cuisines")
+    public Map<String, Object> suggestCuisines(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return Map.of("suggestions", suggestions.cuisines(prefix, limit));
+    }
+
+    /** Several searches, run concurrently; {@code results} holds their responses in request order. */
+    @PostMapping("/search/multi")
+    public Map<String, Object> multiSearch(@RequestBody List<SearchRequest> searches) {
+        return Map.of("results", batchService.multiSearch(searches.stream().map(SearchRequest::toParams).toList()));
+    }
+
+    /** The whole catalogue, or the rows matching the optional search filters, as NDJSON or CSV. */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String format,
+            @ModelAttribute SearchRequest search
     ) {
-        return service.search(calories, title, cuisine, totalTime, rating, page, limit);
+        RecipeExportService.Format fmt = RecipeExportService.Format.parse(format);
+        // Paging, count and shape parameters do not apply to an export, so they are not validated either
+        RecipeSearchRepository.SearchParams params = search.toFilterParams();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recipes." + fmt.extension + "\"")
+                .body(out -> exportService.export(params, fmt, out));
     }
 
     @GetMapping("/stats")
@@ -0,0 +1,46 @@
+package com.example.recipes.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records response encoding time as {@code recipes.response.serialize}, tagged with the
+ * wire format and the matched route; used by the timed message converters.
+ */
+class ResponseSerializationTimer {
+
+    private final MeterRegistry registry;
+    private final String format;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    ResponseSerializationTimer(MeterRegistry registry, String format) {
+        this.registry = registry;
+        this.format = format;
+    }
+
+    void record(long startNanos) {
+        timers.computeIfAbsent(route(), uri -> Timer.builder("recipes.response.serialize")
+                .description("Time spent encoding response bodies")
+                .tag("format", format)
+                .tag("uri", uri)
+                .register(registry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Route templates such as /api/recipes/{id} keep the tag's cardinality bounded
+    private static String route() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object pattern = attributes != null
+                ? attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
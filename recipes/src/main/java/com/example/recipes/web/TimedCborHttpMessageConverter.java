@@ -0,0 +1,35 @@
+package com.example.recipes.web;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@code application/cbor} converter for clients that send {@code Accept: application/cbor};
+ * same response shapes as JSON, binary-encoded, and timed like {@link TimedJsonHttpMessageConverter}.
+ */
+public class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    private final ResponseSerializationTimer timer;
+
+    public TimedCborHttpMessageConverter(ObjectMapper cborMapper, MeterRegistry registry) {
+        super(cborMapper);
+        this.timer = new ResponseSerializationTimer(registry, "cbor");
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timer.record(start);
+        }
+    }
+}
@@ -1,8 +1,8 @@
-DROP TABLE IF EXISTS recipes;
-
-CREATE TABLE recipes (
+CREATE TABLE IF NOT EXISTS recipes (
   id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
   cuisine VARCHAR(255),
+  -- dictionary id of the cuisine, see the cuisines table
+  cuisine_id INT NULL,
   title VARCHAR(500) NOT NULL,
   rating DECIMAL(3,2) NULL,
   prep_time INT NULL,
@@ -11,6 +11,8 @@ CREATE TABLE recipes (
   description TEXT,
   url VARCHAR(1000),
   ingredients TEXT,
+  -- normalized ingredient words, space-separated, written by the importer
+  ingredient_tokens TEXT NULL,
   instructions TEXT,
   nutrients JSON NULL,
   serves VARCHAR(255),
@@ -24,12 +26,149 @@ CREATE TABLE recipes (
         ''
       ) AS UNSIGNED
     )
-  ) STORED
+  ) STORED,
+
+  -- typed nutrients, extracted once on write: grams with one decimal, sodium in milligrams
+  protein_g DECIMAL(6,1) GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.proteinContent')), '[^0-9.]', ''), '') AS DECIMAL(6,1))
+  ) STORED,
+  fat_g DECIMAL(6,1) GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.fatContent')), '[^0-9.]', ''), '') AS DECIMAL(6,1))
+  ) STORED,
+  carbohydrates_g DECIMAL(6,1) GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.carbohydrateContent')), '[^0-9.]', ''), '') AS DECIMAL(6,1))
+  ) STORED,
+  sodium_mg INT GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.sodiumContent')), '[^0-9.]', ''), '') AS UNSIGNED)
+  ) STORED,
+
+  -- import fingerprints: 64-bit hashes of the record's source key and of its content
+  source_hash BIGINT NULL,
+  content_hash BIGINT NULL,
+
+  INDEX idx_recipes_rating (rating DESC),
+  INDEX idx_recipes_total_time (total_time),
+  INDEX idx_recipes_cuisine_id (cuisine_id, rating DESC),
+  INDEX idx_recipes_title (title(191)),
+  INDEX idx_recipes_calories_num (calories_num),
+  INDEX idx_recipes_protein_g (protein_g),
+  INDEX idx_recipes_fat_g (fat_g),
+  INDEX idx_recipes_carbohydrates_g (carbohydrates_g),
+  INDEX idx_recipes_sodium_mg (sodium_mg),
+  INDEX idx_recipes_source_hash (source_hash)
+);
+
+-- Cuisine dictionary: one row per cuisine, compared trimmed and lower-cased, referenced by
+-- recipes.cuisine_id; the empty key stands for recipes without a cuisine. The importer keeps each
+-- row's recipe count and rating and total time sums in step with the recipes it writes, in the
+-- same transaction, so statistics read this table instead of aggregating recipes
+CREATE TABLE IF NOT EXISTS cuisines (
+  id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  cuisine_key VARCHAR(255) NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  recipes BIGINT NOT NULL DEFAULT 0,
+  rated BIGINT NOT NULL DEFAULT 0,
+  rating_sum DECIMAL(20,2) NOT NULL DEFAULT 0,
+  timed BIGINT NOT NULL DEFAULT 0,
+  total_time_sum BIGINT NOT NULL DEFAULT 0,
+  UNIQUE KEY uk_cuisines_key (cuisine_key)
+);
+
+-- Single-row version of the recipe data, bumped after every import that changes it;
+-- ETag and Last-Modified headers are derived from it
+CREATE TABLE IF NOT EXISTS dataset_version (
+  id TINYINT NOT NULL PRIMARY KEY,
+  version BIGINT NOT NULL,
+  updated_at TIMESTAMP(3) NOT NULL
 );
 
+INSERT IGNORE INTO dataset_version (id, version, updated_at) VALUES (1, 1, CURRENT_TIMESTAMP(3));
+
+-- Ingredient inverted index: one compressed posting list of recipe ids per token. The state row
+-- holds the fingerprint of the recipes table the postings were built from; when it no longer
+-- matches, the postings are rebuilt from recipes.ingredient_tokens
+CREATE TABLE IF NOT EXISTS ingredient_postings (
+  token VARCHAR(64) NOT NULL PRIMARY KEY,
+  postings MEDIUMBLOB NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ingredient_index_state (
+  id TINYINT NOT NULL PRIMARY KEY,
+  recipes BIGINT NOT NULL,
+  id_xor BIGINT NOT NULL,
+  content_xor BIGINT NOT NULL
+);
+
+-- Migrations. CREATE TABLE IF NOT EXISTS leaves tables of earlier versions of this script as they
+-- were, so each step below adds what such a table lacks and does nothing once it is there. Rows
+-- the importer would now write differently get a NULL content_hash, and the next start imports
+-- them again whatever the import mode.
+
+-- Import fingerprints. The table used to be dropped on every start, so its rows are loaded again
+SET @missing = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'recipes' AND COLUMN_NAME = 'source_hash');
+SET @ddl = IF(@missing,
+  'ALTER TABLE recipes ADD COLUMN source_hash BIGINT NULL, ADD COLUMN content_hash BIGINT NULL, ADD INDEX idx_recipes_source_hash (source_hash)',
+  'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+SET @ddl = IF(@missing, 'DELETE FROM recipes', 'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+-- Typed nutrients; generated columns are computed for existing rows as they are added
+SET @missing = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'recipes' AND COLUMN_NAME = 'protein_g');
+SET @ddl = IF(@missing, "ALTER TABLE recipes
+  ADD COLUMN protein_g DECIMAL(6,1) GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.proteinContent')), '[^0-9.]', ''), '') AS DECIMAL(6,1))
+  ) STORED,
+  ADD COLUMN fat_g DECIMAL(6,1) GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.fatContent')), '[^0-9.]', ''), '') AS DECIMAL(6,1))
+  ) STORED,
+  ADD COLUMN carbohydrates_g DECIMAL(6,1) GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.carbohydrateContent')), '[^0-9.]', ''), '') AS DECIMAL(6,1))
+  ) STORED,
+  ADD COLUMN sodium_mg INT GENERATED ALWAYS AS (
+    CAST(NULLIF(REGEXP_REPLACE(JSON_UNQUOTE(JSON_EXTRACT(nutrients, '$.sodiumContent')), '[^0-9.]', ''), '') AS UNSIGNED)
+  ) STORED,
+  ADD INDEX idx_recipes_protein_g (protein_g),
+  ADD INDEX idx_recipes_fat_g (fat_g),
+  ADD INDEX idx_recipes_carbohydrates_g (carbohydrates_g),
+  ADD INDEX idx_recipes_sodium_mg (sodium_mg)", 'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+
+-- Ingredient tokens, which only the importer computes
+SET @missing = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'recipes' AND COLUMN_NAME = 'ingredient_tokens');
+SET @ddl = IF(@missing, 'ALTER TABLE recipes ADD COLUMN ingredient_tokens TEXT NULL', 'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+SET @ddl = IF(@missing, 'UPDATE recipes SET content_hash = NULL', 'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
 
-CREATE INDEX idx_recipes_rating ON recipes (rating DESC);
-CREATE INDEX idx_recipes_total_time ON recipes (total_time);
-CREATE INDEX idx_recipes_cuisine ON recipes (cuisine);
-CREATE INDEX idx_recipes_title ON recipes (title(191));
-CREATE INDEX idx_recipes_calories_num ON recipes (calories_num);
+-- Cuisine ids, which the importer resolves and counts into the cuisines aggregates
+SET @missing = (SELECT COUNT(*) = 0 FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'recipes' AND COLUMN_NAME = 'cuisine_id');
+SET @ddl = IF(@missing, 'ALTER TABLE recipes ADD COLUMN cuisine_id INT NULL, ADD INDEX idx_recipes_cuisine_id (cuisine_id, rating DESC)',
+  'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+SET @ddl = IF(@missing, 'UPDATE recipes SET content_hash = NULL', 'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
+SET @ddl = IF((SELECT COUNT(*) > 0 FROM information_schema.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'recipes' AND INDEX_NAME = 'idx_recipes_cuisine'),
+  'ALTER TABLE recipes DROP INDEX idx_recipes_cuisine', 'DO 0');
+PREPARE migration FROM @ddl;
+EXECUTE migration;
+DEALLOCATE PREPARE migration;
@@ -65,9 +65,10 @@ async function fetchPage() {
       if (filters.calories) q.set('calories', filters.calories);
       q.set('page', page);
       q.set('limit', limit);
+      q.set('count', 'cached');
       url = `${API}/search?${q.toString()}`;
     } else {
-      url = `${API}?page=${page}&limit=${limit}`;
+      url = `${API}?page=${page}&limit=${limit}&count=cached`;
     }
     
     const res = await fetch(url);
@@ -123,7 +124,16 @@ function renderEmptyStates() {
   el('noResults').classList.toggle('hidden', hasRows || state.total === 0);
 }
 
-function openDrawer(r) {
+async function openDrawer(summary) {
+  // List rows are summaries; the drawer needs the full recipe
+  let r = summary;
+  try {
+    const res = await fetch(`${API}/${summary.id}`);
+    if (res.ok) r = await res.json();
+  } catch (error) {
+    console.error('Error fetching recipe details:', error);
+  }
+
   el('drawerTitle').textContent = r.title || '';
   el('drawerCuisine').textContent = r.cuisine || '';
   el('drawerDesc').textContent = r.description || '';
@@ -157,6 +167,68 @@ function openDrawer(r) {
   el('drawer').classList.add('open');
 }
 
+// The range filter grammar of the API, so that half-typed expressions such as ">=" are never sent
+const NUM = String.raw`[-+]?(?:\d+(?:\.(?!\.)\d*)?|\.\d+)`;
+const TERM = String.raw`(?:\.\.${NUM}|${NUM}\.\.(?:${NUM})?|${NUM}|(?:(?:>=|<=|>|<|=)${NUM})+)`;
+const RANGE = new RegExp(String.raw`^${TERM}(?:,${TERM})*$`);
+
+function isCompleteRange(expr) {
+  const s = expr.replace(/\s+/g, '');
+  return s === '' || RANGE.test(s);
+}
+
+// Searches once the expression is complete; until then the current results stay
+function applyRange(inputId, key) {
+  const value = el(inputId).value.trim();
+  if (!isCompleteRange(value) || value === state.filters[key]) return;
+  state.filters[key] = value;
+  state.page = 1;
+  fetchPage();
+}
+
+// Completions come from the in-memory suggestion indexes, so they can follow every keystroke
+async function suggest(inputId, listId, kind) {
+  const prefix = el(inputId).value.trim();
+  const list = el(listId);
+  if (!prefix) { list.innerHTML = ''; return; }
+  try {
+    const res = await fetch(`${API}/suggest/${kind}?prefix=${encodeURIComponent(prefix)}&limit=8`);
+    if (!res.ok) return;
+    const data = await res.json();
+    list.innerHTML = '';
+    (data.suggestions || []).forEach(s => {
+      const opt = document.createElement('option');
+      opt.value = s;
+      list.appendChild(opt);
+    });
+  } catch (error) {
+    console.error('Error fetching suggestions:', error);
+  }
+}
+
+// Searches with the committed text of a filter; unchanged values do not search again
+function applyText(inputId, key) {
+  const value = el(inputId).value.trim();
+  if (value === state.filters[key]) return;
+  state.filters[key] = value;
+  state.page = 1;
+  fetchPage();
+}
+
+// Typing only fetches suggestions; a search runs on Enter, on leaving the field, or when a suggestion is picked
+function wireTextFilter(inputId, listId, kind, key) {
+  const input = el(inputId);
+  const suggestions = debounce(() => suggest(inputId, listId, kind), 80);
+  input.addEventListener('input', (e) => {
+    const picked = e.inputType === undefined || e.inputType === 'insertReplacementText'
+      || Array.from(el(listId).options).some(o => o.value === input.value);
+    if (picked) applyText(inputId, key);
+    else suggestions();
+  });
+  input.addEventListener('change', () => applyText(inputId, key));
+  input.addEventListener('keydown', (e) => { if (e.key === 'Enter') applyText(inputId, key); });
+}
+
 function closeDrawer() {
   el('drawer').classList.remove('open');
 }
@@ -179,10 +251,10 @@ function wireEvents() {
   });
 
 
-  el('titleFilter').addEventListener('input', debounce(() => { state.filters.title = el('titleFilter').value.trim(); state.page=1; fetchPage(); }, 300));
-  el('cuisineFilter').addEventListener('input', debounce(() => { state.filters.cuisine = el('cuisineFilter').value.trim(); state.page=1; fetchPage(); }, 300));
-  el('ratingFilter').addEventListener('input', debounce(() => { state.filters.rating = el('ratingFilter').value.trim(); state.page=1; fetchPage(); }, 300));
-  el('totalTimeFilter').addEventListener('input', debounce(() => { state.filters.total_time = el('totalTimeFilter').value.trim(); state.page=1; fetchPage(); }, 300));
+  wireTextFilter('titleFilter', 'titleSuggestions', 'titles', 'title');
+  wireTextFilter('cuisineFilter', 'cuisineSuggestions', 'cuisines', 'cuisine');
+  el('ratingFilter').addEventListener('input', debounce(() => applyRange('ratingFilter', 'rating'), 300));
+  el('totalTimeFilter').addEventListener('input', debounce(() => applyRange('totalTimeFilter', 'total_time'), 300));
 
 
   el('servesFilter').addEventListener('input', debounce(() => {
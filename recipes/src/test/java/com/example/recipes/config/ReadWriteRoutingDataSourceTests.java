@@ -0,0 +1,155 @@
+package com.example.recipes.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class ReadWriteRoutingDataSourceTests {
+
+	/** A database that can be taken down and brought back. */
+	static class Switchable extends DelegatingDataSource {
+		volatile boolean down;
+
+		Switchable(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if (down) {
+				throw new SQLException("Connection refused");
+			}
+			return super.getConnection();
+		}
+	}
+
+	private final EmbeddedDatabase primary = database("primary");
+	private final EmbeddedDatabase replica = database("replica");
+	private final Switchable switchable = new Switchable(replica);
+
+	private static EmbeddedDatabase database(String name) {
+		EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.H2)
+				.setName("routing-" + name)
+				.build();
+		JdbcTemplate jdbc = new JdbcTemplate(db);
+		jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+		jdbc.update("INSERT INTO node VALUES (?)", name);
+		return db;
+	}
+
+	@AfterEach
+	void shutDown() {
+		primary.shutdown();
+		replica.shutdown();
+	}
+
+	private static String node(DataSource dataSource) {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+	}
+
+	private static String read(DataSource dataSource) {
+		return DataSourceRouting.onReplica(() -> node(dataSource));
+	}
+
+	@Test
+	void onlyReplicaReadsLeaveThePrimary() {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(switchable), Duration.ZERO);
+
+		assertThat(node(routing)).isEqualTo("primary");
+		assertThat(read(routing)).isEqualTo("replica");
+		assertThat(node(routing)).isEqualTo("primary");
+	}
+
+	@Test
+	void readsAlternateBetweenReplicas() {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(switchable, primary), Duration.ZERO);
+
+		assertThat(List.of(read(routing), read(routing), read(routing), read(routing)))
+				.containsExactly("replica", "primary", "replica", "primary");
+	}
+
+	@Test
+	void failedReplicaLeavesRotationUntilHealthCheckPasses() {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(switchable), Duration.ZERO);
+		switchable.down = true;
+
+		assertThat(read(routing)).isEqualTo("primary");
+		assertThat(routing.healthyReplicas()).isZero();
+
+		switchable.down = false;
+		assertThat(read(routing)).isEqualTo("primary");
+		routing.checkReplicas();
+		assertThat(routing.healthyReplicas()).isEqualTo(1);
+		assertThat(read(routing)).isEqualTo("replica");
+	}
+
+	@Test
+	void readsStayOnPrimaryWithinReadYourWritesWindow() {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(switchable), Duration.ofHours(1));
+		assertThat(read(routing)).isEqualTo("replica");
+
+		routing.markWritten();
+		assertThat(read(routing)).isEqualTo("primary");
+	}
+
+	@Test
+	void closeClosesEveryReplicaPool() {
+		class Pool extends DelegatingDataSource implements AutoCloseable {
+			final boolean fails;
+			boolean closed;
+
+			Pool(boolean fails) {
+				super(replica);
+				this.fails = fails;
+			}
+
+			@Override
+			public void close() throws SQLException {
+				closed = true;
+				if (fails) {
+					throw new SQLException("Pool already closed");
+				}
+			}
+		}
+		Pool failing = new Pool(true);
+		Pool other = new Pool(false);
+
+		new ReadWriteRoutingDataSource(primary, List.of(failing, other), Duration.ZERO).close();
+
+		assertThat(failing.closed).isTrue();
+		assertThat(other.closed).isTrue();
+	}
+
+	@Test
+	void propagatedTasksReadFromReplicaOnOtherThreads() throws Exception {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(switchable), Duration.ZERO);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			String propagated = DataSourceRouting.onReplica(() -> CompletableFuture
+					.supplyAsync(DataSourceRouting.propagate(() -> node(routing)), pool).join());
+			String plain = CompletableFuture.supplyAsync(() -> node(routing), pool).get();
+
+			assertThat(propagated).isEqualTo("replica");
+			assertThat(plain).isEqualTo("primary");
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
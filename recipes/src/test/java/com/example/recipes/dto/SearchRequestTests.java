@@ -0,0 +1,66 @@
+package com.example.recipes.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.ServletRequestDataBinder;
+import org.springframework.web.bind.support.BindParamNameResolver;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SearchRequestTests {
+
+	/** Binds the query parameters the way {@code @ModelAttribute} does, names resolved as MVC's binder factory does. */
+	private static SearchRequest bind(MockHttpServletRequest request) {
+		ServletRequestDataBinder binder = new ServletRequestDataBinder(null);
+		binder.setNameResolver(new BindParamNameResolver());
+		binder.setTargetType(ResolvableType.forClass(SearchRequest.class));
+		binder.construct(request);
+		assertThat(binder.getBindingResult().hasErrors()).isFalse();
+		return (SearchRequest) binder.getTarget();
+	}
+
+	@Test
+	void bindsSnakeCaseQueryParameters() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/search");
+		request.addParameter("total_time", "<=30");
+		request.addParameter("ingredients_all", "flour,egg");
+		request.addParameter("ingredients_none", "nuts");
+		request.addParameter("rating", ">=4");
+		request.addParameter("page", "2");
+
+		SearchRequest search = bind(request);
+
+		assertThat(search.totalTime()).isEqualTo("<=30");
+		assertThat(search.ingredientsAll()).isEqualTo("flour,egg");
+		assertThat(search.ingredientsNone()).isEqualTo("nuts");
+		assertThat(search.rating()).isEqualTo(">=4");
+		assertThat(search.page()).isEqualTo(2);
+		assertThat(search.ingredientsAny()).isNull();
+	}
+
+	@Test
+	void readsSnakeCaseJson() throws Exception {
+		SearchRequest search = new ObjectMapper().readValue(
+				"{\"total_time\": \"<=30\", \"ingredients_any\": \"basil\", \"limit\": 5}", SearchRequest.class);
+
+		assertThat(search.totalTime()).isEqualTo("<=30");
+		assertThat(search.ingredientsAny()).isEqualTo("basil");
+		assertThat(search.limit()).isEqualTo(5);
+	}
+
+	@Test
+	void filterParamsIgnoreShapeParameters() {
+		SearchRequest search = SearchRequest.builder().totalTime("<=30").count("bogus").fields("bogus").facets("bogus").build();
+
+		assertThatThrownBy(search::toParams).isInstanceOf(InvalidSearchParameterException.class);
+		SearchParams params = search.toFilterParams();
+		assertThat(params.totalTimeExpr).isEqualTo("<=30");
+		assertThat(params.facets).isNull();
+	}
+}
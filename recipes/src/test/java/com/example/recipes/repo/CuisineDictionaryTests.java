@@ -0,0 +1,53 @@
+package com.example.recipes.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipes.entity.CuisineConverter;
+
+class CuisineDictionaryTests {
+
+	@Test
+	void keysIgnoreCaseAndSurroundingSpaces() {
+		assertThat(CuisineDictionary.key(" Southern Recipes ")).isEqualTo("southern recipes");
+		assertThat(CuisineDictionary.key("ITALIAN")).isEqualTo(CuisineDictionary.key("italian"));
+		assertThat(CuisineDictionary.key(null)).isEmpty();
+	}
+
+	@Test
+	void changesSumPerCuisineInHundredthsOfARating() {
+		CuisineDictionary.Changes changes = new CuisineDictionary.Changes();
+		changes.add(7, 4.55, 30);
+		changes.add(7, 4.1, null);
+		changes.add(3, null, 45);
+
+		Map<Integer, long[]> deltas = changes.deltas();
+		assertThat(deltas.keySet()).containsExactly(3, 7);
+		assertThat(deltas.get(7)).containsExactly(2, 2, 865, 1, 30);
+		assertThat(deltas.get(3)).containsExactly(1, 0, 0, 1, 45);
+	}
+
+	@Test
+	void changesThatCancelOutAreNotApplied() {
+		CuisineDictionary.Changes changes = new CuisineDictionary.Changes();
+		changes.remove(2, 4.5, 20);
+		changes.add(2, 4.5, 20);
+		changes.remove(5, 3.0, 10);
+		changes.add(9, 3.0, 10);
+		changes.add(null, 5.0, 10);
+
+		assertThat(changes.deltas().keySet()).containsExactly(5, 9);
+		assertThat(changes.deltas().get(5)).containsExactly(-1, -1, -300, -1, -10);
+	}
+
+	@Test
+	void internedCuisinesShareOneInstance() {
+		String a = new String("Mexican");
+		String b = new String("Mexican");
+		assertThat(CuisineConverter.intern(a)).isSameAs(CuisineConverter.intern(b));
+		assertThat(CuisineConverter.intern(null)).isNull();
+	}
+}
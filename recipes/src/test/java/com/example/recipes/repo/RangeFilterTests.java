@@ -0,0 +1,103 @@
+package com.example.recipes.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class RangeFilterTests {
+
+	private static String sql(RangeFilter filter, Map<String, Object> params) {
+		StringBuilder sql = new StringBuilder();
+		filter.appendSql(sql, params, "r.x", "x");
+		return sql.toString().trim();
+	}
+
+	@Test
+	void keepsTheSingleComparisonSyntax() {
+		assertThat(RangeFilter.parse(">=4.5", false)).hasToString("[4.5..+inf)");
+		assertThat(RangeFilter.parse(" <= 400 ", true)).hasToString("(-inf..400]");
+		assertThat(RangeFilter.parse("<4.5", false)).hasToString("(-inf..4.5)");
+		assertThat(RangeFilter.parse("120", true)).hasToString("[120..120]");
+		assertThat(RangeFilter.parse("=.5", false)).hasToString("[0.5..0.5]");
+		assertThat(RangeFilter.parse("  ", false)).isNull();
+	}
+
+	@Test
+	void parsesRangesOpenBoundsAndCombinedComparisons() {
+		assertThat(RangeFilter.parse("30..60", true)).hasToString("[30..60]");
+		assertThat(RangeFilter.parse("4..", false)).hasToString("[4.0..+inf)");
+		assertThat(RangeFilter.parse("..-1.5", false)).hasToString("(-inf..-1.5]");
+		assertThat(RangeFilter.parse(">=4 <5", false)).hasToString("[4.0..5.0)");
+	}
+
+	@Test
+	void normalizesListsIntoSortedDisjointIntervals() {
+		assertThat(RangeFilter.parse("60,30,45", true)).hasToString("[30..30]|[45..45]|[60..60]");
+		assertThat(RangeFilter.parse("40..60,<20,50..70,20", true)).hasToString("(-inf..20]|[40..70]");
+		assertThat(RangeFilter.parse("<5,>=5", false)).hasToString("(-inf..+inf)");
+	}
+
+	@Test
+	void tightensBoundsOfWholeNumberColumns() {
+		assertThat(RangeFilter.parse(">4.5", true)).hasToString("[5..+inf)");
+		assertThat(RangeFilter.parse("<10", true)).hasToString("(-inf..9]");
+		assertThat(RangeFilter.parse("4.5", true).isEmpty()).isTrue();
+		assertThat(RangeFilter.parse(">5<3", true).isEmpty()).isTrue();
+	}
+
+	@Test
+	void matchesValuesAgainstTheIntervals() {
+		RangeFilter open = RangeFilter.parse(">4<5", false);
+		assertThat(open.test(4)).isFalse();
+		assertThat(open.test(4.01)).isTrue();
+		assertThat(open.test(5)).isFalse();
+		assertThat(open.test(Double.NaN)).isFalse();
+
+		RangeFilter list = RangeFilter.parse("1,3,5,7,9,11..20", true);
+		assertThat(list.test(7)).isTrue();
+		assertThat(list.test(8)).isFalse();
+		assertThat(list.test(15)).isTrue();
+		assertThat(list.test(0)).isFalse();
+		assertThat(list.test(21)).isFalse();
+	}
+
+	@Test
+	void rendersIndexFriendlyPredicates() {
+		Map<String, Object> params = new HashMap<>();
+		assertThat(sql(RangeFilter.parse(">=4.5", false), params)).isEqualTo("AND r.x >= :xLo0");
+		assertThat(params).containsEntry("xLo0", 4.5);
+
+		params.clear();
+		assertThat(sql(RangeFilter.parse("30,45,60", true), params)).isEqualTo("AND r.x IN (:x)");
+		assertThat(params).containsEntry("x", List.of(30L, 45L, 60L));
+
+		params.clear();
+		assertThat(sql(RangeFilter.parse("<20,40..60,90", true), params))
+				.isEqualTo("AND (r.x <= :xHi0 OR r.x >= :xLo1 AND r.x <= :xHi1 OR r.x = :x)");
+		assertThat(params).containsEntry("xHi0", 19L).containsEntry("xLo1", 40L).containsEntry("x", 90L);
+	}
+
+	@Test
+	void rejectsMalformedExpressions() {
+		for (String expr : new String[] { "abc", ">=", "4..5..6", "1,", "..", ">>4", "4>3" }) {
+			assertThatThrownBy(() -> RangeFilter.parse(expr, false))
+					.as(expr)
+					.isInstanceOf(InvalidSearchParameterException.class);
+		}
+	}
+
+	@Test
+	void rejectsNonAsciiDigitsAndOverflowingNumbers() {
+		// Arabic-Indic and fullwidth digits pass Character.isDigit but not Double.parseDouble
+		for (String expr : new String[] { "\u0663..\u0665", ">=\uFF14", "4.\u0665", "1" + "0".repeat(400) }) {
+			assertThatThrownBy(() -> RangeFilter.parse(expr, false))
+					.as(expr)
+					.isInstanceOf(InvalidSearchParameterException.class);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.recipes.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.recipes.config.AppConfig;
+import com.example.recipes.config.FacetProperties;
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.RecipeSearchRepository.CountMode;
+import com.example.recipes.repo.RecipeSearchRepository.PagedResult;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+class RecipeSearchRepositoryTests {
+
+	private final EntityManager em = mock(EntityManager.class);
+	private final Query countQuery = mock(Query.class);
+	private final Query pageQuery = mock(Query.class);
+	private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor();
+	private final RecipeSearchRepository repository = new RecipeSearchRepository();
+
+	/** Thread the count query ran on. */
+	private final AtomicReference<Thread> counted = new AtomicReference<>();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(repository, "em", em);
+		ReflectionTestUtils.setField(repository, "queryExecutor", queryExecutor);
+		ReflectionTestUtils.setField(repository, "metrics", new SearchMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(repository, "facetProperties", new FacetProperties());
+		ReflectionTestUtils.setField(repository, "cuisines", mock(CuisineDictionary.class));
+		ReflectionTestUtils.setField(repository, "countCache", new SearchCountCache(new CaffeineCacheManager(AppConfig.RECIPE_COUNTS)));
+		ReflectionTestUtils.setField(repository, "maxInListIds", 1000);
+		parallelQueries(true);
+
+		when(em.createNativeQuery(startsWith("SELECT COUNT(*)"))).thenReturn(countQuery);
+		when(em.createNativeQuery(startsWith("SELECT r.*"), eq(Recipe.class))).thenReturn(pageQuery);
+		when(countQuery.getSingleResult()).thenAnswer(invocation -> {
+			counted.set(Thread.currentThread());
+			return 42L;
+		});
+		when(pageQuery.getResultList()).thenReturn(List.of(recipe(1, 4.5), recipe(2, 4.0)));
+	}
+
+	@AfterEach
+	void shutDown() {
+		queryExecutor.shutdownNow();
+	}
+
+	private void parallelQueries(boolean enabled) {
+		ReflectionTestUtils.setField(repository, "parallelQueries", enabled);
+	}
+
+	private static Recipe recipe(long id, double rating) {
+		return Recipe.builder().id(id).title("Recipe " + id).rating(rating).build();
+	}
+
+	private static SearchParams search(CountMode count) {
+		SearchParams p = new SearchParams();
+		p.ratingExpr = ">=4";
+		p.count = count;
+		return p;
+	}
+
+	@Test
+	void countRunsOnTheQueryExecutorWhileThePageIsRead() throws Exception {
+		CountDownLatch pageStarted = new CountDownLatch(1);
+		when(pageQuery.getResultList()).thenAnswer(invocation -> {
+			pageStarted.countDown();
+			return List.of(recipe(1, 4.5));
+		});
+		when(countQuery.getSingleResult()).thenAnswer(invocation -> {
+			counted.set(Thread.currentThread());
+			// Only finishes if the page query runs while the count is still open
+			return pageStarted.await(5, TimeUnit.SECONDS) ? 42L : -1L;
+		});
+
+		PagedResult result = repository.search(search(CountMode.EXACT));
+
+		assertThat(result.total).isEqualTo(42L);
+		assertThat(result.data).extracting(Recipe::getId).containsExactly(1L);
+		assertThat(counted.get()).isNotNull().isNotSameAs(Thread.currentThread());
+	}
+
+	@Test
+	void countRunsOnTheCallingThreadWithoutParallelQueries() {
+		parallelQueries(false);
+
+		PagedResult result = repository.search(search(CountMode.EXACT));
+
+		assertThat(result.total).isEqualTo(42L);
+		assertThat(result.data).hasSize(2);
+		assertThat(counted.get()).isSameAs(Thread.currentThread());
+		InOrder order = inOrder(countQuery, pageQuery);
+		order.verify(countQuery).getSingleResult();
+		order.verify(pageQuery).getResultList();
+	}
+
+	@Test
+	void failedCountSurfacesItsOwnException() {
+		IllegalStateException failure = new IllegalStateException("Lock wait timeout exceeded");
+		when(countQuery.getSingleResult()).thenThrow(failure);
+
+		assertThatThrownBy(() -> repository.search(search(CountMode.EXACT))).isSameAs(failure);
+	}
+
+	@Test
+	void cachedCountIsQueriedOncePerFilter() {
+		repository.search(search(CountMode.CACHED));
+		SearchParams nextPage = search(CountMode.CACHED);
+		nextPage.page = 2;
+		PagedResult result = repository.search(nextPage);
+
+		assertThat(result.total).isEqualTo(42L);
+		verify(em, times(1)).createNativeQuery(startsWith("SELECT COUNT(*)"));
+	}
+
+	@Test
+	void noCountQueryWithoutATotal() {
+		PagedResult result = repository.search(search(CountMode.NONE));
+
+		assertThat(result.total).isNull();
+		assertThat(result.data).hasSize(2);
+		verify(em, never()).createNativeQuery(anyString());
+	}
+}
@@ -0,0 +1,40 @@
+package com.example.recipes.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SearchCursorTests {
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void roundTripsPositions() {
+		SearchCursor rated = SearchCursor.decode(new SearchCursor(4.5, 42L, 3).encode());
+		SearchCursor unrated = SearchCursor.decode(new SearchCursor(null, 7L).encode());
+
+		assertThat(rated.rating).isEqualTo(4.5);
+		assertThat(rated.id).isEqualTo(42L);
+		assertThat(rated.matches).isEqualTo(3);
+		assertThat(unrated.rating).isNull();
+		assertThat(unrated.matches).isNull();
+		assertThat(SearchCursor.decode(" ")).isNull();
+	}
+
+	@Test
+	void rejectsMalformedAndNonFiniteCursors() {
+		for (String raw : new String[] { "NaN:1", "Infinity:1", "-Infinity:1", "4.5", "4.5:x", "4.5:1:2:3" }) {
+			assertThatThrownBy(() -> SearchCursor.decode(token(raw)))
+					.as(raw)
+					.isInstanceOf(InvalidSearchParameterException.class);
+		}
+		assertThatThrownBy(() -> SearchCursor.decode("not base64!"))
+				.isInstanceOf(InvalidSearchParameterException.class);
+	}
+}
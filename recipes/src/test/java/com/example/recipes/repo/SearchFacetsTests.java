@@ -0,0 +1,55 @@
+package com.example.recipes.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipes.config.FacetProperties;
+
+class SearchFacetsTests {
+
+	private final FacetProperties properties = new FacetProperties();
+
+	@Test
+	void parsesRequestedFacetsInCanonicalOrder() {
+		assertThat(SearchFacets.parse(" Calories,cuisine ,calories")).containsExactly("cuisine", "calories");
+		assertThat(SearchFacets.parse("")).isNull();
+		assertThatThrownBy(() -> SearchFacets.parse("cuisine,serves")).isInstanceOf(InvalidSearchParameterException.class);
+	}
+
+	@Test
+	void placesValuesInHalfOpenBuckets() {
+		double[] bounds = { 3, 3.5, 4, 4.5 };
+
+		assertThat(SearchFacets.bucket(bounds, 2.9)).isEqualTo(0);
+		assertThat(SearchFacets.bucket(bounds, 3)).isEqualTo(1);
+		assertThat(SearchFacets.bucket(bounds, 4.49)).isEqualTo(3);
+		assertThat(SearchFacets.bucket(bounds, 5)).isEqualTo(4);
+	}
+
+	@Test
+	void labelsBucketsWithTheFilterThatSelectsThem() {
+		SearchFacets facets = SearchFacets.of(List.of("rating"), properties);
+		Map<String, Long> rating = facets.empty().get("rating");
+
+		assertThat(rating).containsOnlyKeys("<3", ">=3<3.5", ">=3.5<4", ">=4<4.5", ">=4.5");
+		for (String label : rating.keySet()) {
+			assertThat(RangeFilter.parse(label, false).isEmpty()).isFalse();
+		}
+	}
+
+	@Test
+	void listsTheMostFrequentCuisines() {
+		properties.setCuisineLimit(2);
+		SearchFacets facets = SearchFacets.of(List.of("cuisine"), properties);
+
+		Map<String, Map<String, Long>> result = facets.result(Map.of("Thai", 3L, "Italian", 9L, "Greek", 3L), null, null, null);
+
+		assertThat(result).containsOnlyKeys("cuisine");
+		assertThat(result.get("cuisine")).containsExactly(Map.entry("Italian", 9L), Map.entry("Greek", 3L));
+	}
+}
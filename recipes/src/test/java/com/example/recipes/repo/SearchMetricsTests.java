@@ -0,0 +1,50 @@
+package com.example.recipes.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SearchMetrics metrics = new SearchMetrics(registry);
+
+	@Test
+	void tagsSearchesWithTheirFilterCombination() {
+		SearchParams p = new SearchParams();
+		p.title = "pie";
+		p.ratingExpr = ">=4.5";
+		p.caloriesExpr = " ";
+
+		metrics.search(p, false, System.nanoTime(), 11, 10, 42L);
+
+		assertThat(registry.get("recipes.search").tag("engine", "sql").tag("filters", "title+rating").timer().count())
+				.isEqualTo(1);
+		assertThat(registry.get("recipes.search.rows").tag("kind", "matched").summary().totalAmount()).isEqualTo(42);
+		assertThat(registry.get("recipes.search.rows").tag("kind", "scanned").summary().totalAmount()).isEqualTo(11);
+	}
+
+	@Test
+	void skipsUnknownCountsAndScans() {
+		metrics.search(new SearchParams(), true, System.nanoTime(), -1, 3, null);
+
+		assertThat(registry.get("recipes.search").tag("engine", "memory").tag("filters", "none").timer().count())
+				.isEqualTo(1);
+		assertThat(registry.get("recipes.search.rows").tag("kind", "matched").summary().count()).isZero();
+		assertThat(registry.get("recipes.search.rows").tag("kind", "scanned").summary().count()).isZero();
+	}
+
+	@Test
+	void recordsPhasesByShape() {
+		metrics.phase(SearchMetrics.Phase.DATA, true, System.nanoTime());
+
+		assertThat(registry.get("recipes.search.phase").tag("phase", "data").tag("fields", "summary").timer().count())
+				.isEqualTo(1);
+		assertThat(registry.get("recipes.search.phase").tag("phase", "data").tag("fields", "full").timer().count())
+				.isZero();
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.recipes.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+
+class IngredientIndexTests {
+
+	private final IngredientIndex index = IngredientIndex.build(new int[] { 10, 20, 30, 40 }, new String[] {
+			IngredientTokens.of(List.of("2 cups chopped Pecans", "3 large eggs")),
+			IngredientTokens.of(List.of("1 pound chicken breasts", "2 cloves garlic")),
+			IngredientTokens.of(List.of("1 cup brown rice", "1 clove garlic, minced", "Tomatoes")),
+			null });
+
+	private static IngredientQuery query(String all, String any, String none) {
+		SearchParams p = new SearchParams();
+		p.ingredientsAll = all;
+		p.ingredientsAny = any;
+		p.ingredientsNone = none;
+		return IngredientQuery.of(p);
+	}
+
+	@Test
+	void normalizesLinesToSortedSingularTokens() {
+		assertThat(IngredientTokens.of(List.of("2 cups chopped Pecans", "3 Large EGGS", "Tomatoes, peeled")))
+				.isEqualTo("egg pecan tomato");
+		assertThat(IngredientTokens.of(List.of("1 cup", "to taste"))).isNull();
+		assertThat(IngredientTokens.terms(" Brown Rice ,garlic,")).satisfiesExactly(
+				t -> assertThat(t).containsExactly("brown", "rice"),
+				t -> assertThat(t).containsExactly("garlic"));
+	}
+
+	@Test
+	void rejectsTermsWithoutAnIndexableWord() {
+		assertThatThrownBy(() -> IngredientTokens.terms("garlic, 2 cups"))
+				.isInstanceOf(InvalidSearchParameterException.class)
+				.hasMessage("Invalid ingredient: 2 cups");
+		assertThat(query(null, " ", null)).isNull();
+	}
+
+	@Test
+	void combinesAllAnyAndNoneTerms() {
+		assertThat(index.match(query("garlic", null, null)).include.toArray()).containsExactly(20, 30);
+		assertThat(index.match(query("garlic", "pecan, chicken", null)).include.toArray()).containsExactly(20);
+		assertThat(index.match(query("brown rice", null, null)).include.toArray()).containsExactly(30);
+		assertThat(index.match(query("white rice", null, null)).isEmpty()).isTrue();
+
+		IngredientIndex.Match match = index.match(query(null, null, "tomato"));
+		assertThat(match.include).isNull();
+		assertThat(match.exclude.toArray()).containsExactly(30);
+		assertThat(index.match(query(null, "garlic", "tomato")).include.toArray()).containsExactly(20);
+	}
+
+	@Test
+	void tiersRankedQueriesByMatchedTerms() {
+		IngredientIndex.Match match = index.match(query(null, "garlic, chicken, egg", null));
+
+		assertThat(match.tiers).hasSize(4);
+		assertThat(match.tiers[2].toArray()).containsExactly(20);
+		assertThat(match.tiers[1].toArray()).containsExactly(10, 30);
+		assertThat(match.matches(20)).isEqualTo(2);
+		assertThat(match.matches(30)).isEqualTo(1);
+		assertThat(index.match(query(null, "garlic", null)).tiers).isNull();
+	}
+}
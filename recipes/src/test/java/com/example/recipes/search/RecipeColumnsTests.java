@@ -0,0 +1,267 @@
+package com.example.recipes.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.recipes.config.FacetProperties;
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.RecipeSearchRepository.PagedResult;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+import com.example.recipes.repo.SearchFacets;
+
+class RecipeColumnsTests {
+
+	private static Recipe recipe(long id, String title, String cuisine, Double rating, Integer totalTime, Integer calories) {
+		return Recipe.builder().id(id).title(title).cuisine(cuisine).rating(rating)
+				.total_time(totalTime).caloriesNum(calories).build();
+	}
+
+	/** Columns over {@code recipes} that load full rows from the same list, as the engine loads them by id. */
+	private static RecipeColumns columns(List<Recipe> recipes) {
+		return RecipeColumns.build(recipes.stream().map(RecipeColumnsTests::row).toList(), byId(recipes));
+	}
+
+	private static RecipeColumns.Row row(Recipe r) {
+		return new RecipeColumns.Row(r.getId(), r.getTitle(), r.getCuisine(), r.getRating(), r.getTotal_time(),
+				r.getCaloriesNum(), r.getProteinG(), r.getFatG(), r.getCarbohydratesG(), r.getSodiumMg(), r.getServes(),
+				r.getIngredientTokens());
+	}
+
+	private static Function<List<Long>, List<Recipe>> byId(List<Recipe> recipes) {
+		return ids -> ids.stream().map(id -> recipes.stream().filter(r -> r.getId().equals(id)).findFirst().orElseThrow()).toList();
+	}
+
+	private final RecipeColumns columns = columns(List.of(
+			recipe(1, "Sweet Potato Pie", "Southern", 4.8, 90, 390),
+			recipe(2, "Pecan Pie", "southern", 4.8, 120, 520),
+			recipe(3, "Apple Pie", "American", 4.2, 75, 410),
+			recipe(4, "Gumbo", "Southern", null, 180, null),
+			recipe(5, "Key Lime Pie", null, 4.9, 45, 300)));
+
+	private static List<Long> ids(PagedResult result) {
+		return result.data.stream().map(Recipe::getId).toList();
+	}
+
+	@Test
+	void ordersByRatingDescThenIdWithNullsLast() {
+		PagedResult result = columns.search(new SearchParams());
+
+		assertThat(result.total).isEqualTo(5L);
+		assertThat(ids(result)).containsExactly(5L, 1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void appliesFiltersLikeTheSqlQuery() {
+		SearchParams p = new SearchParams();
+		p.title = "PIE";
+		p.cuisine = "SOUTHERN";
+		p.caloriesExpr = "<= 400";
+		PagedResult result = columns.search(p);
+
+		assertThat(result.total).isEqualTo(1L);
+		assertThat(ids(result)).containsExactly(1L);
+	}
+
+	@Test
+	void matchesCuisinesByTheirDictionaryKey() {
+		Locale locale = Locale.getDefault();
+		// Turkish lower-cases 'I' to a dotless 'ı', so a default-locale key would miss "Italian"
+		Locale.setDefault(Locale.forLanguageTag("tr"));
+		try {
+			RecipeColumns italian = columns(List.of(
+					recipe(1, "Risotto", "ITALIAN", 4.5, 40, 450),
+					recipe(2, "Lasagna", " Italian ", 4.0, 90, 600)));
+			SearchParams p = new SearchParams();
+			p.cuisine = "italian ";
+
+			assertThat(ids(italian.search(p))).containsExactly(1L, 2L);
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+
+	@Test
+	void appliesRangesAndLists() {
+		SearchParams p = new SearchParams();
+		p.totalTimeExpr = "45..90";
+		p.caloriesExpr = "300,390,520";
+		p.ratingExpr = ">4.5<4.9";
+		PagedResult result = columns.search(p);
+
+		assertThat(ids(result)).containsExactly(1L);
+	}
+
+	@Test
+	void filtersOnTypedNutrients() {
+		List<Recipe> recipes = new ArrayList<>();
+		recipes.add(Recipe.builder().id(1L).title("Steak").proteinG(42.5).fatG(20.0).carbohydratesG(0.0).sodiumMg(480).build());
+		recipes.add(Recipe.builder().id(2L).title("Salad").proteinG(4.0).fatG(9.5).carbohydratesG(12.0).sodiumMg(150).build());
+		recipes.add(Recipe.builder().id(3L).title("Toast").carbohydratesG(30.0).build());
+		RecipeColumns nutrients = columns(recipes);
+
+		SearchParams p = new SearchParams();
+		p.proteinExpr = ">=20";
+		assertThat(ids(nutrients.search(p))).containsExactly(1L);
+
+		p = new SearchParams();
+		p.carbohydratesExpr = "<20";
+		p.sodiumExpr = "<=500";
+		assertThat(ids(nutrients.search(p))).containsExactly(1L, 2L);
+
+		p = new SearchParams();
+		p.fatExpr = ">=0";
+		assertThat(ids(nutrients.search(p))).containsExactly(1L, 2L);
+	}
+
+	private static Recipe cooked(long id, double rating, String... ingredients) {
+		return Recipe.builder().id(id).title("Dish " + id).rating(rating)
+				.ingredientTokens(IngredientTokens.of(List.of(ingredients))).build();
+	}
+
+	private final RecipeColumns pantry = columns(List.of(
+			cooked(1, 4.0, "2 cups chopped Pecans", "1 cup sugar", "3 eggs"),
+			cooked(2, 4.5, "1 pound chicken", "2 cloves garlic", "1 onion, diced"),
+			cooked(3, 3.0, "1 pound chicken", "1 cup rice"),
+			cooked(4, 5.0, "2 cloves garlic", "1 cup rice", "1 teaspoon salt"),
+			cooked(5, 4.9, "1 onion", "1 pound ground beef")));
+
+	@Test
+	void filtersOnAllAnyAndNoneOfTheIngredients() {
+		SearchParams p = new SearchParams();
+		p.ingredientsAll = "pecan, egg";
+		assertThat(ids(pantry.search(p))).containsExactly(1L);
+
+		p = new SearchParams();
+		p.ingredientsAny = "onions";
+		p.ingredientsNone = "ground beef";
+		assertThat(ids(pantry.search(p))).containsExactly(2L);
+
+		p = new SearchParams();
+		p.ingredientsNone = "chicken";
+		assertThat(ids(pantry.search(p))).containsExactly(4L, 5L, 1L);
+	}
+
+	@Test
+	void ranksByMatchedIngredientsThenRatingAcrossCursorPages() {
+		List<Long> walked = new ArrayList<>();
+		SearchParams p = new SearchParams();
+		p.ingredientsAny = "chicken, garlic, rice";
+		p.limit = 1;
+		do {
+			PagedResult result = pantry.search(p);
+			walked.addAll(ids(result));
+			p.cursor = result.next;
+		} while (p.cursor != null);
+
+		assertThat(walked).containsExactly(4L, 2L, 3L);
+	}
+
+	@Test
+	void countsFacetsOverAllMatches() {
+		SearchParams p = new SearchParams();
+		p.title = "pie";
+		p.limit = 1;
+		PagedResult result = columns.search(p, SearchFacets.of(SearchFacets.NAMES, new FacetProperties()));
+
+		assertThat(result.facets.get("cuisine")).containsExactly(Map.entry("Southern", 2L), Map.entry("American", 1L));
+		assertThat(result.facets.get("rating")).containsEntry(">=4<4.5", 1L).containsEntry(">=4.5", 3L);
+		assertThat(result.facets.get("total_time")).containsEntry(">=30<60", 1L).containsEntry(">=60<120", 2L)
+				.containsEntry(">=120", 1L);
+		assertThat(result.facets.get("calories")).containsEntry(">=200<400", 2L).containsEntry(">=400<600", 2L);
+	}
+
+	@Test
+	void nullColumnsNeverMatchComparisons() {
+		SearchParams p = new SearchParams();
+		p.ratingExpr = "<5";
+		PagedResult result = columns.search(p);
+
+		assertThat(ids(result)).containsExactly(5L, 1L, 2L, 3L);
+	}
+
+	@Test
+	void pagesThroughTheSortedMatches() {
+		SearchParams p = new SearchParams();
+		p.title = "pie";
+		p.page = 2;
+		p.limit = 3;
+		PagedResult result = columns.search(p);
+
+		assertThat(result.total).isEqualTo(4L);
+		assertThat(ids(result)).containsExactly(3L);
+	}
+
+	@Test
+	void cursorsWalkTheSameOrderAsPages() {
+		List<Long> walked = new ArrayList<>();
+		SearchParams p = new SearchParams();
+		p.limit = 2;
+		do {
+			PagedResult result = columns.search(p);
+			walked.addAll(ids(result));
+			p.cursor = result.next;
+		} while (p.cursor != null);
+
+		assertThat(walked).containsExactly(5L, 1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void summaryProjectionReturnsOnlySummaries() {
+		SearchParams p = new SearchParams();
+		p.summary = true;
+		p.limit = 1;
+		PagedResult result = columns.search(p);
+
+		assertThat(result.data).isNull();
+		assertThat(result.summaries).singleElement()
+				.satisfies(s -> assertThat(s.getTitle()).isEqualTo("Key Lime Pie"));
+	}
+
+	@Test
+	void searchesAWrittenSnapshotLikeTheBuiltColumns(@TempDir Path dir) throws IOException {
+		List<Recipe> recipes = new ArrayList<>();
+		for (int i = 1; i <= 5; i++) {
+			Recipe r = cooked(i, 4.0 + i % 3 * 0.5, i % 2 == 0 ? "1 pound chicken" : "2 cloves garlic", "1 cup rice");
+			r.setCuisine(i % 2 == 0 ? "Southern" : "southern");
+			r.setServes(i + " servings");
+			r.setTotal_time(i * 20);
+			recipes.add(r);
+		}
+		recipes.add(Recipe.builder().id(9L).title("Plain Toast").build());
+		RecipeColumns built = columns(recipes);
+		try (SnapshotFile.Writer out = new SnapshotFile.Writer(dir.resolve("columns.snap"), 1, Instant.now())) {
+			built.write(out);
+			out.commit();
+		}
+		RecipeColumns mapped = RecipeColumns.read(SnapshotFile.open(dir.resolve("columns.snap")), byId(recipes));
+
+		SearchParams p = new SearchParams();
+		p.cuisine = "SOUTHERN";
+		p.title = "dish";
+		p.ingredientsAny = "chicken, rice";
+		p.limit = 2;
+		PagedResult expected = built.search(p, SearchFacets.of(SearchFacets.NAMES, new FacetProperties()));
+		PagedResult actual = mapped.search(p, SearchFacets.of(SearchFacets.NAMES, new FacetProperties()));
+		assertThat(ids(actual)).isEqualTo(ids(expected));
+		assertThat(actual.next).isEqualTo(expected.next);
+		assertThat(actual.facets).isEqualTo(expected.facets);
+
+		p = new SearchParams();
+		p.summary = true;
+		p.totalTimeExpr = "<=60";
+		p.title = "to";
+		assertThat(mapped.search(p).summaries).usingRecursiveFieldByFieldElementComparator()
+				.isEqualTo(built.search(p).summaries);
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.recipes.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class RoaringIdsTests {
+
+	/** Sparse values over several groups plus one group dense enough for a bitmap. */
+	private static int[] sample(long seed, int dense) {
+		Random random = new Random(seed);
+		return IntStream.concat(
+				IntStream.generate(() -> random.nextInt(400_000)).limit(3_000),
+				IntStream.generate(() -> 200_000 + random.nextInt(65_536)).limit(dense))
+				.sorted().distinct().toArray();
+	}
+
+	private static BitSet bits(int[] values) {
+		BitSet set = new BitSet();
+		IntStream.of(values).forEach(set::set);
+		return set;
+	}
+
+	@Test
+	void setOperationsAgreeWithBitSet() {
+		int[] a = sample(1, 20_000);
+		int[] b = sample(2, 3_000);
+		RoaringIds x = RoaringIds.of(a);
+		RoaringIds y = RoaringIds.of(b);
+
+		BitSet and = bits(a);
+		and.and(bits(b));
+		BitSet or = bits(a);
+		or.or(bits(b));
+		BitSet andNot = bits(a);
+		andNot.andNot(bits(b));
+
+		assertThat(x.cardinality()).isEqualTo(a.length);
+		assertThat(x.toArray()).containsExactly(a);
+		assertThat(x.and(y).toBitSet()).isEqualTo(and);
+		assertThat(x.and(y).cardinality()).isEqualTo(and.cardinality());
+		assertThat(x.or(y).toBitSet()).isEqualTo(or);
+		assertThat(x.andNot(y).toBitSet()).isEqualTo(andNot);
+		assertThat(y.andNot(x).cardinality()).isEqualTo(b.length - and.cardinality());
+	}
+
+	@Test
+	void containsChecksBothContainerKinds() {
+		RoaringIds ids = RoaringIds.of(IntStream.range(70_000, 80_000).toArray());
+		RoaringIds sparse = RoaringIds.of(3, 65_536, 1 << 30);
+
+		assertThat(ids.contains(75_000)).isTrue();
+		assertThat(ids.contains(80_000)).isFalse();
+		assertThat(sparse.contains(65_536)).isTrue();
+		assertThat(sparse.contains(1 << 30)).isTrue();
+		assertThat(sparse.contains(4)).isFalse();
+		assertThat(RoaringIds.EMPTY.contains(0)).isFalse();
+	}
+
+	@Test
+	void roundTripsThroughItsSerializedForm() throws IOException {
+		RoaringIds ids = RoaringIds.of(sample(3, 20_000));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ids.write(new DataOutputStream(bytes));
+
+		RoaringIds read = RoaringIds.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertThat(read.cardinality()).isEqualTo(ids.cardinality());
+		assertThat(read.toArray()).containsExactly(ids.toArray());
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.recipes.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.recipes.util.DatasetVersion;
+
+class SearchSnapshotStoreTests {
+
+	private static final DatasetVersion.Snapshot V7 = new DatasetVersion.Snapshot(7, Instant.parse("2026-01-02T03:04:05.678Z"));
+
+	@TempDir
+	Path dir;
+
+	private final DatasetVersion datasetVersion = mock(DatasetVersion.class);
+	private final SearchSnapshotStore store = new SearchSnapshotStore(datasetVersion);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(store, "dir", dir.toString());
+		when(datasetVersion.current()).thenReturn(V7);
+	}
+
+	private void saveSample() {
+		store.save("sample", V7, out -> out
+				.longs("ids", LongBuffer.wrap(new long[] { 3, 1L << 40 }))
+				.ints("empty", IntBuffer.allocate(0))
+				.ints("order", IntBuffer.wrap(new int[] { 1, 0, -1 })));
+	}
+
+	@Test
+	void mapsTheSectionsOfTheCurrentVersion() {
+		saveSample();
+
+		SnapshotFile file = store.open("sample");
+
+		assertThat(file).isNotNull();
+		assertThat(file.version()).isEqualTo(7);
+		assertThat(file.longs("ids").get(1)).isEqualTo(1L << 40);
+		assertThat(file.ints("empty").limit()).isZero();
+		assertThat(file.ints("order").limit()).isEqualTo(3);
+		assertThat(file.ints("order").get(2)).isEqualTo(-1);
+	}
+
+	@Test
+	void ignoresSnapshotsOfAnotherDatasetVersion() {
+		saveSample();
+		when(datasetVersion.current()).thenReturn(new DatasetVersion.Snapshot(8, Instant.now()));
+
+		assertThat(store.open("sample")).isNull();
+		assertThat(store.open("missing")).isNull();
+	}
+
+	@Test
+	void ignoresFilesThatAreNotSnapshots() throws IOException {
+		Files.writeString(dir.resolve("sample.snap"), "not a snapshot, but long enough for a header");
+
+		assertThat(store.open("sample")).isNull();
+	}
+
+	@Test
+	void keepsThePreviousSnapshotWhenWritingFails() {
+		saveSample();
+		store.save("sample", new DatasetVersion.Snapshot(8, Instant.now()), out -> {
+			throw new IOException("disk full");
+		});
+
+		assertThat(store.open("sample")).isNotNull();
+		assertThat(dir.resolve("sample.snap.tmp")).doesNotExist();
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.recipes.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestIndexTests {
+
+	private final SuggestIndex index = SuggestIndex.build(
+			new String[] { "Sweet Potato Pie", "Pecan Pie", "Classic Pecan Pie", "Peach Cobbler", "pecan pie", null, "Apple Crumble" },
+			new double[] { 4.8, 4.1, 4.9, 4.5, 1.0, 5.0, 4.5 });
+
+	@Test
+	void completesWordStartsHeaviestFirst() {
+		assertThat(index.complete("pe", 10)).containsExactly("Pecan Pie", "Classic Pecan Pie", "Peach Cobbler");
+		assertThat(index.complete("PECAN P", 10)).containsExactly("Pecan Pie", "Classic Pecan Pie");
+		assertThat(index.complete("potato", 2)).containsExactly("Sweet Potato Pie");
+	}
+
+	@Test
+	void mergesTextsThatDifferOnlyInCase() {
+		// "Pecan Pie" 4.1 + "pecan pie" 1.0 outweighs "Classic Pecan Pie" 4.9
+		assertThat(index.complete("pie", 10)).containsExactly("Pecan Pie", "Classic Pecan Pie", "Sweet Potato Pie");
+		assertThat(index.size()).isEqualTo(5);
+	}
+
+	@Test
+	void breaksTiesAlphabeticallyAndMatchesEverythingOnABlankPrefix() {
+		assertThat(index.complete("", 3)).containsExactly("Pecan Pie", "Classic Pecan Pie", "Sweet Potato Pie");
+		assertThat(index.complete(" ", 10)).hasSize(5).endsWith("Apple Crumble", "Peach Cobbler");
+	}
+
+	@Test
+	void returnsNothingWithoutAMatch() {
+		assertThat(index.complete("ie", 10)).isEmpty();
+		assertThat(SuggestIndex.build(new String[0], new double[0]).complete("pie", 10)).isEmpty();
+	}
+
+	@Test
+	void agreesWithAFullScan() {
+		Random random = new Random(7);
+		String[] words = { "apple", "apricot", "bean", "beef", "berry", "cake", "chili", "corn", "pie", "pork" };
+		String[] texts = new String[500];
+		double[] weights = new double[texts.length];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+			weights[i] = random.nextInt(50) / 10.0;
+		}
+		SuggestIndex big = SuggestIndex.build(texts, weights);
+
+		for (String prefix : new String[] { "a", "be", "ber", "pi", "po", "c", "1" }) {
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < texts.length; i++) {
+				for (String word : texts[i].split(" ")) {
+					if (word.startsWith(prefix)) {
+						expected.add(i);
+						break;
+					}
+				}
+			}
+			expected.sort(Comparator.<Integer>comparingDouble(i -> -weights[i]).thenComparing(i -> texts[i]));
+			List<String> top = expected.stream().limit(10).map(i -> texts[i]).toList();
+
+			assertThat(big.complete(prefix, 10)).as(prefix).containsExactlyElementsOf(top);
+		}
+	}
+}
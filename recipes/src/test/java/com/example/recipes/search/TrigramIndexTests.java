@@ -0,0 +1,79 @@
+package com.example.recipes.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrigramIndexTests {
+
+	private final TrigramIndex index = TrigramIndex.build(new String[] {
+			"Sweet Potato Pie", "Pecan Pie", "Shepherd's Pie", "Piecrust Cookies", "Apple Crumble" });
+
+	@Test
+	void findsCaseInsensitiveSubstrings() {
+		assertThat(index.search("PIE")).containsExactly(0, 1, 2, 3);
+		assertThat(index.search("D'S PIE")).containsExactly(2);
+		assertThat(index.search("crumb")).containsExactly(4);
+	}
+
+	@Test
+	void ignoresAccentsLikeTheColumnCollation() {
+		TrigramIndex accented = TrigramIndex.build(new String[] { "Crème Brûlée", "Creme Caramel", "Île flottante" });
+
+		assertThat(accented.search("creme")).containsExactly(0, 1);
+		assertThat(accented.search("CRÈME")).containsExactly(0, 1);
+		assertThat(accented.search("brulee")).containsExactly(0);
+		assertThat(accented.contains(2, "Il")).isTrue();
+	}
+
+	@Test
+	void foldsIndependentlyOfTheDefaultLocale() {
+		Locale before = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr"));
+		try {
+			assertThat(TrigramIndex.fold("PIE")).isEqualTo("pie");
+			assertThat(index.search("PIECRUST")).containsExactly(3);
+		} finally {
+			Locale.setDefault(before);
+		}
+	}
+
+	@Test
+	void verifiesCandidatesAfterIntersectingPostings() {
+		// every trigram of "tato pot" occurs in "Sweet Potato Pie", the substring does not
+		assertThat(index.search("tato pot")).isEmpty();
+		assertThat(index.search("tato pie")).containsExactly(0);
+	}
+
+	@Test
+	void returnsNullForPatternsShorterThanATrigram() {
+		assertThat(index.search("pi")).isNull();
+	}
+
+	@Test
+	void postingListsRoundTrip() {
+		int[] values = { 0, 3, 127, 128, 16_384, 2_000_000 };
+		assertThat(TrigramIndex.decode(TrigramIndex.encode(values, values.length))).containsExactly(values);
+	}
+
+	@Test
+	void searchesTheMappedSnapshotLikeTheBuiltIndex(@TempDir Path dir) throws IOException {
+		try (SnapshotFile.Writer out = new SnapshotFile.Writer(dir.resolve("t.snap"), 1, Instant.now())) {
+			index.write(out, "title");
+			out.commit();
+		}
+		TrigramIndex mapped = TrigramIndex.read(SnapshotFile.open(dir.resolve("t.snap")), "title");
+
+		assertThat(mapped.trigramCount()).isEqualTo(index.trigramCount());
+		assertThat(mapped.search("PIE")).containsExactly(0, 1, 2, 3);
+		assertThat(mapped.search("tato pot")).isEmpty();
+		assertThat(mapped.search("zzz")).isEmpty();
+		assertThat(mapped.contains(4, "crumb")).isTrue();
+	}
+}
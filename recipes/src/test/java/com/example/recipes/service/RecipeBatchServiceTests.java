@@ -0,0 +1,103 @@
+package com.example.recipes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.recipes.config.AppConfig;
+import com.example.recipes.dto.RecipeDto;
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RecipeBatchServiceTests {
+
+	private final RecipeRepository repository = mock(RecipeRepository.class);
+	private final CaffeineCacheManager cacheManager = new CaffeineCacheManager(AppConfig.RECIPE_BY_ID);
+	private final RecipeBatchService service = new RecipeBatchService(null, repository, cacheManager,
+			new SingleFlight(new SimpleMeterRegistry()), Executors.newVirtualThreadPerTaskExecutor());
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "maxIds", 5);
+		ReflectionTestUtils.setField(service, "maxSearches", 2);
+	}
+
+	private static Recipe recipe(long id) {
+		return Recipe.builder().id(id).title("Recipe " + id).build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Long> ids(Map<String, Object> response) {
+		return ((List<RecipeDto>) response.get("data")).stream().map(RecipeDto::getId).toList();
+	}
+
+	@Test
+	void returnsRecipesInRequestOrderWithOneQuery() {
+		when(repository.findAllById(any())).thenReturn(List.of(recipe(1), recipe(2), recipe(3)));
+
+		Map<String, Object> response = service.getRecipesByIds(List.of(3L, 1L, 9L, 2L, 3L));
+
+		assertThat(ids(response)).containsExactly(3L, 1L, 2L);
+		assertThat(response.get("missing")).isEqualTo(List.of(9L));
+		verify(repository).findAllById(List.of(3L, 1L, 9L, 2L));
+	}
+
+	@Test
+	void servesCachedAndKnownMissingIdsWithoutQuerying() {
+		cacheManager.getCache(AppConfig.RECIPE_BY_ID).put(1L, RecipeDto.from(recipe(1)));
+		cacheManager.getCache(AppConfig.RECIPE_BY_ID).put(9L, null);
+
+		Map<String, Object> response = service.getRecipesByIds(List.of(9L, 1L));
+
+		assertThat(ids(response)).containsExactly(1L);
+		assertThat(response.get("missing")).isEqualTo(List.of(9L));
+		verify(repository, never()).findAllById(any());
+	}
+
+	@Test
+	void cachesWhatItLoads() {
+		when(repository.findAllById(any())).thenReturn(List.of(recipe(4)));
+
+		service.getRecipesByIds(List.of(4L, 5L));
+
+		assertThat(cacheManager.getCache(AppConfig.RECIPE_BY_ID).get(4L).get()).isInstanceOf(RecipeDto.class);
+		assertThat(cacheManager.getCache(AppConfig.RECIPE_BY_ID).get(5L).get()).isNull();
+	}
+
+	@Test
+	void ignoresEmptyIds() {
+		when(repository.findAllById(any())).thenReturn(List.of(recipe(1), recipe(2)));
+
+		Map<String, Object> response = service.getRecipesByIds(Arrays.asList(1L, null, 2L, null));
+
+		assertThat(ids(response)).containsExactly(1L, 2L);
+		assertThat(response.get("missing")).isEqualTo(List.of());
+		verify(repository).findAllById(List.of(1L, 2L));
+	}
+
+	@Test
+	void rejectsOversizedBatches() {
+		assertThatThrownBy(() -> service.getRecipesByIds(List.of(1L, 2L, 3L, 4L, 5L, 6L)))
+				.isInstanceOf(InvalidSearchParameterException.class);
+		assertThatThrownBy(() -> service.multiSearch(Collections.nCopies(3, null)))
+				.isInstanceOf(InvalidSearchParameterException.class);
+	}
+}
@@ -0,0 +1,93 @@
+package com.example.recipes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipes.repo.InvalidSearchParameterException;
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.repo.RecipeSearchRepository.SearchParams;
+import com.example.recipes.service.RecipeExportService.Format;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RecipeExportServiceTests {
+
+	private final RecipeSearchRepository repository = mock(RecipeSearchRepository.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final RecipeExportService service = new RecipeExportService(repository, objectMapper);
+
+	/** Rows as the scroll query returns them: id, title, cuisine, rating, times, description, nutrients, serves. */
+	@SuppressWarnings("unchecked")
+	private void rows(Object[]... rows) {
+		when(repository.scroll(any(), anyString(), anyInt(), any())).thenAnswer(invocation -> {
+			Consumer<Object[]> sink = invocation.getArgument(3);
+			for (Object[] row : rows) {
+				sink.accept(row);
+			}
+			return (long) rows.length;
+		});
+	}
+
+	private String export(Format format) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long exported = service.export(new SearchParams(), format, out);
+		assertThat(exported).isEqualTo(2);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void writesOneTypedJsonObjectPerLine() throws Exception {
+		rows(new Object[] { 1L, "Pecan Pie", "Southern", new BigDecimal("4.50"), 15, 60, 75, "Rich", "{\"calories\": \"520 kcal\"}", "8" },
+				new Object[] { 2L, "Plain", null, null, null, null, null, null, null, null });
+
+		List<String> lines = export(Format.NDJSON).lines().toList();
+
+		assertThat(lines).hasSize(2);
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertThat(first.get("id").isIntegralNumber()).isTrue();
+		assertThat(first.get("rating").isDouble()).isTrue();
+		assertThat(first.get("rating").asDouble()).isEqualTo(4.5);
+		assertThat(first.get("total_time").asInt()).isEqualTo(75);
+		assertThat(first.get("serves").isTextual()).isTrue();
+		// Stored nutrients JSON is passed through byte for byte
+		assertThat(lines.get(0)).contains("\"nutrients\":{\"calories\": \"520 kcal\"}");
+
+		JsonNode second = objectMapper.readTree(lines.get(1));
+		assertThat(second.get("rating").isNull()).isTrue();
+		assertThat(second.get("nutrients").isNull()).isTrue();
+		assertThat(second.get("cuisine").isNull()).isTrue();
+	}
+
+	@Test
+	void quotesCsvFieldsAsRfc4180() throws Exception {
+		rows(new Object[] { 1L, "Pie, \"Grandma's\"", "Southern", new BigDecimal("4.00"), 15, null, 75, "Line one\nline two",
+						"{\"calories\": \"520 kcal\"}", null },
+				new Object[] { 2L, "Plain", null, null, null, null, null, null, null, null });
+
+		String csv = export(Format.CSV);
+
+		assertThat(csv).isEqualTo("id,title,cuisine,rating,prep_time,cook_time,total_time,description,nutrients,serves\n"
+				+ "1,\"Pie, \"\"Grandma's\"\"\",Southern,4.0,15,,75,\"Line one\nline two\",\"{\"\"calories\"\": \"\"520 kcal\"\"}\",\n"
+				+ "2,Plain,,,,,,,,\n");
+	}
+
+	@Test
+	void parsesFormatsIgnoringCase() {
+		assertThat(Format.parse(null)).isEqualTo(Format.NDJSON);
+		assertThat(Format.parse(" csv ")).isEqualTo(Format.CSV);
+		assertThatThrownBy(() -> Format.parse("xml")).isInstanceOf(InvalidSearchParameterException.class);
+	}
+}
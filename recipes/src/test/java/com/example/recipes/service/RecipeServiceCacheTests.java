@@ -0,0 +1,111 @@
+package com.example.recipes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.example.recipes.config.AppConfig;
+import com.example.recipes.entity.Recipe;
+import com.example.recipes.repo.CuisineDictionary;
+import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.repo.RecipeSearchRepository;
+import com.example.recipes.repo.SearchCountCache;
+import com.example.recipes.util.RecipesImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/** The cache regions of {@link AppConfig} around a proxied {@link RecipeService}. */
+class RecipeServiceCacheTests {
+
+	private final RecipeRepository repository = mock(RecipeRepository.class);
+	private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+
+	RecipeServiceCacheTests() {
+		// Singletons, so the mocks are not post-processed like the real beans
+		context.getBeanFactory().registerSingleton("recipeRepository", repository);
+		context.getBeanFactory().registerSingleton("recipeSearchRepository", mock(RecipeSearchRepository.class));
+		context.getBeanFactory().registerSingleton("cuisineDictionary", mock(CuisineDictionary.class));
+		context.getBeanFactory().registerSingleton("objectMapper", new ObjectMapper());
+		context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry());
+		context.register(AppConfig.class, SingleFlight.class, SearchCountCache.class, RecipeService.class);
+		context.refresh();
+	}
+
+	@AfterEach
+	void close() {
+		context.close();
+	}
+
+	private RecipeService service() {
+		return context.getBean(RecipeService.class);
+	}
+
+	private Cache<Object, Object> region(String name) {
+		return ((CaffeineCache) context.getBean(CacheManager.class).getCache(name)).getNativeCache();
+	}
+
+	private CacheStats stats(String name) {
+		return region(name).stats();
+	}
+
+	@Test
+	void repeatedLookupsAreServedFromTheCache() {
+		when(repository.findById(1L)).thenReturn(Optional.of(Recipe.builder().id(1L).title("Pie").build()));
+
+		service().getRecipeById(1L);
+		service().getRecipeById(1L);
+
+		verify(repository, times(1)).findById(1L);
+		assertThat(stats(AppConfig.RECIPE_BY_ID).hitCount()).isEqualTo(1);
+		assertThat(stats(AppConfig.RECIPE_BY_ID).missCount()).isEqualTo(1);
+	}
+
+	@Test
+	void importEvictsCachedLookups() {
+		when(repository.findById(1L)).thenReturn(Optional.of(Recipe.builder().id(1L).title("Pie").build()));
+		service().getRecipeById(1L);
+
+		context.publishEvent(new RecipesImportedEvent(1));
+		service().getRecipeById(1L);
+
+		verify(repository, times(2)).findById(1L);
+	}
+
+	@Test
+	void regionsAreBoundedBySize() {
+		// recipes.cache.statistics.max-size defaults to 1
+		Cache<Object, Object> statistics = region(AppConfig.RECIPE_STATISTICS);
+		statistics.put("a", 1);
+		statistics.put("b", 2);
+		statistics.cleanUp();
+
+		assertThat(statistics.estimatedSize()).isEqualTo(1);
+	}
+
+	@Test
+	void searchTotalsAreCountedOncePerFilter() {
+		SearchCountCache counts = context.getBean(SearchCountCache.class);
+		AtomicInteger queries = new AtomicInteger();
+
+		long first = counts.get("rating:>=4", () -> 40 + queries.incrementAndGet());
+		long second = counts.get("rating:>=4", () -> 40 + queries.incrementAndGet());
+
+		assertThat(first).isEqualTo(41);
+		assertThat(second).isEqualTo(41);
+		assertThat(queries).hasValue(1);
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.recipes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SingleFlight singleFlight = new SingleFlight(registry);
+
+	private double calls(String result) {
+		return registry.get("recipes.singleflight.calls").tag("result", result).counter().count();
+	}
+
+	@Test
+	void concurrentCallersShareOneComputation() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			results.add(pool.submit(() -> singleFlight.execute("k", () -> {
+				runs.incrementAndGet();
+				started.countDown();
+				await(release);
+				return "value";
+			})));
+			started.await();
+			for (int i = 0; i < 3; i++) {
+				results.add(pool.submit(() -> singleFlight.execute("k", () -> {
+					runs.incrementAndGet();
+					return "other";
+				})));
+			}
+			while (calls("coalesced") < 3) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+			}
+			assertThat(runs).hasValue(1);
+			assertThat(calls("executed")).isEqualTo(1);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void failuresAreNotRemembered() {
+		assertThatThrownBy(() -> singleFlight.execute("k", () -> {
+			throw new IllegalStateException("boom");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(singleFlight.execute("k", () -> "ok")).isEqualTo("ok");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
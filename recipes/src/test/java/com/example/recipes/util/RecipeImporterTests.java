@@ -0,0 +1,131 @@
+package com.example.recipes.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.recipes.repo.CuisineDictionary;
+import com.example.recipes.repo.RecipeRepository;
+import com.example.recipes.util.RecipeImporter.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+
+class RecipeImporterTests {
+
+	private final EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+			.setType(EmbeddedDatabaseType.H2)
+			.generateUniqueName(true)
+			.build();
+	private final JdbcTemplate jdbc = new JdbcTemplate(db);
+	private final RecipeImporter importer = new RecipeImporter(mock(RecipeRepository.class), new ObjectMapper(),
+			mock(ApplicationEventPublisher.class), jdbc, null, Validation.buildDefaultValidatorFactory().getValidator(),
+			mock(DatasetVersion.class), mock(CuisineDictionary.class), new TransactionTemplate(new DataSourceTransactionManager(db)));
+
+	@BeforeEach
+	void setUp() {
+		// The columns the importer writes, with the NOT NULL constraints of schema.sql
+		jdbc.execute("CREATE TABLE recipes (id BIGINT AUTO_INCREMENT PRIMARY KEY, cuisine VARCHAR(255), cuisine_id INT, "
+				+ "title VARCHAR(500) NOT NULL, rating DECIMAL(3,2), prep_time INT, cook_time INT, total_time INT, "
+				+ "description TEXT, url VARCHAR(1000), ingredients TEXT NOT NULL, ingredient_tokens TEXT, "
+				+ "instructions TEXT NOT NULL, nutrients TEXT, serves VARCHAR(255), source_hash BIGINT, content_hash BIGINT)");
+		ReflectionTestUtils.setField(importer, "batchSize", 2);
+		ReflectionTestUtils.setField(importer, "workers", 2);
+		ReflectionTestUtils.setField(importer, "timeout", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(importer, "maxDeleteRatio", 0.5);
+		importer.init();
+	}
+
+	@AfterEach
+	void shutDown() {
+		db.shutdown();
+	}
+
+	private static String recipe(String title) {
+		return "{\"title\": \"" + title + "\", \"URL\": \"https://example.com/" + title + "\", \"rating\": 4.5, "
+				+ "\"ingredients\": [\"1 cup flour\"], \"instructions\": [\"Bake\"]}";
+	}
+
+	private ImportResult importFrom(String json) throws Exception {
+		return importer.importFrom(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private List<String> titles() {
+		return jdbc.queryForList("SELECT title FROM recipes ORDER BY title", String.class);
+	}
+
+	@Test
+	void importsEveryRecordOfAnArrayIncludingTheLastPartialChunk() throws Exception {
+		ImportResult result = importFrom("[" + recipe("a") + "," + recipe("b") + "," + recipe("c") + "," + recipe("d") + ","
+				+ recipe("e") + "]");
+
+		assertThat(result.inserted).isEqualTo(5);
+		assertThat(result.failed).isFalse();
+		assertThat(titles()).containsExactly("a", "b", "c", "d", "e");
+	}
+
+	@Test
+	void importsTheValuesOfAnObject() throws Exception {
+		ImportResult result = importFrom("{\"0\": " + recipe("a") + ", \"1\": " + recipe("b") + ", \"2\": " + recipe("c") + "}");
+
+		assertThat(result.inserted).isEqualTo(3);
+		assertThat(titles()).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void skipsRecordsThatAreNotObjects() throws Exception {
+		ImportResult result = importFrom("[" + recipe("a") + ", \"pie\", [1, {\"title\": \"x\"}], " + recipe("b") + "]");
+
+		assertThat(result.inserted).isEqualTo(2);
+		assertThat(result.skipped).isEqualTo(2);
+		assertThat(result.failed).isFalse();
+		assertThat(titles()).containsExactly("a", "b");
+	}
+
+	@Test
+	void truncatedFeedFailsButReportsTheRowsItWrote() throws Exception {
+		ImportResult result = importFrom("[" + recipe("a") + "," + recipe("b") + "," + recipe("c") + ", {\"title\": \"d");
+
+		assertThat(result.failed).isTrue();
+		// Written rows stay committed, so the caller still refreshes caches and indexes
+		assertThat(result.inserted).isEqualTo(3);
+		assertThat(result.changed()).isEqualTo(3);
+		assertThat(titles()).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void feedThatIsNotAnObjectOrArrayFails() throws Exception {
+		ImportResult result = importFrom("\"recipes\"");
+
+		assertThat(result.failed).isTrue();
+		assertThat(result.changed()).isZero();
+	}
+
+	@Test
+	void failedChunkWriteFailsTheImport() throws Exception {
+		// No ingredients: valid as a recipe, but the NOT NULL column rejects the chunk's INSERT
+		ImportResult result = importFrom("[" + recipe("a") + "," + recipe("b") + ","
+				+ "{\"title\": \"c\", \"instructions\": [\"Bake\"]}," + recipe("d") + "]");
+
+		assertThat(result.failed).isTrue();
+		assertThat(result.inserted).isEqualTo(2);
+		assertThat(result.skipped).isEqualTo(2);
+		assertThat(titles()).containsExactly("a", "b");
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.recipes.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SourceHashIndexTests {
+
+	@Test
+	void classifiesFeedRecordsAgainstStoredHashes() {
+		SourceHashIndex index = new SourceHashIndex(2);
+		index.put(1L, 100L);
+		index.put(2L, 200L);
+		index.put(3L, 300L);
+
+		assertThat(index.mark(1L, 100L)).isEqualTo(SourceHashIndex.UNCHANGED);
+		assertThat(index.mark(2L, 201L)).isEqualTo(SourceHashIndex.CHANGED);
+		assertThat(index.mark(4L, 400L)).isEqualTo(SourceHashIndex.NEW);
+		assertThat(index.mark(4L, 400L)).isEqualTo(SourceHashIndex.DUPLICATE);
+
+		List<Long> unseen = new ArrayList<>();
+		index.forEachUnseen(unseen::add);
+		assertThat(unseen).containsExactly(3L);
+		assertThat(index.unseen()).isEqualTo(1);
+		assertThat(index.stored()).isEqualTo(3);
+	}
+
+	@Test
+	void growsPastItsInitialCapacity() {
+		SourceHashIndex index = new SourceHashIndex(1);
+		for (long key = 0; key < 10_000; key++) {
+			index.put(key * 31, key);
+		}
+		for (long key = 0; key < 10_000; key += 2) {
+			assertThat(index.mark(key * 31, key)).isEqualTo(SourceHashIndex.UNCHANGED);
+		}
+
+		List<Long> unseen = new ArrayList<>();
+		index.forEachUnseen(unseen::add);
+		assertThat(unseen).hasSize(5_000).allMatch(k -> (k / 31) % 2 == 1);
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.recipes.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.recipes.util.DatasetVersion;
+
+class ConditionalGetInterceptorTests {
+
+	private final DatasetVersion datasetVersion = mock(DatasetVersion.class);
+	private final ConditionalGetInterceptor interceptor = interceptor(new StaticListableBeanFactory());
+
+	private ConditionalGetInterceptor interceptor(StaticListableBeanFactory beans) {
+		return new ConditionalGetInterceptor(datasetVersion, Duration.ofSeconds(60), beans.getBeanProvider(BuildProperties.class));
+	}
+
+	@BeforeEach
+	void setUp() {
+		when(datasetVersion.current()).thenReturn(new DatasetVersion.Snapshot(7, Instant.parse("2026-01-02T03:04:05Z")));
+	}
+
+	@Test
+	void tagsResponsesWithTheDatasetVersion() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/recipes/stats"), response, null)).isTrue();
+		assertThat(response.getHeader("ETag")).isEqualTo("W/\"v7-r1\"");
+		assertThat(response.getHeader("Last-Modified")).isEqualTo("Fri, 02 Jan 2026 03:04:05 GMT");
+		assertThat(response.getHeader("Cache-Control")).isNull();
+	}
+
+	/** Runs the interceptor and, if it lets the request through, writes a body with the given status. */
+	private MockHttpServletResponse handle(MockHttpServletRequest request, int status) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		if (interceptor.preHandle(request, response, null)) {
+			response.setStatus(status);
+			ServletServerHttpResponse output = new ServletServerHttpResponse(response);
+			interceptor.beforeBodyWrite("{}", null, MediaType.APPLICATION_JSON, null, new ServletServerHttpRequest(request), output);
+			output.flush();
+		}
+		return response;
+	}
+
+	@Test
+	void successfulBodiesAreCacheable() throws Exception {
+		MockHttpServletResponse response = handle(new MockHttpServletRequest("GET", "/api/recipes/42"), 200);
+
+		assertThat(response.getHeader("Cache-Control")).isEqualTo("max-age=60, public");
+	}
+
+	@Test
+	void errorBodiesAreNotCacheable() throws Exception {
+		assertThat(handle(new MockHttpServletRequest("GET", "/api/recipes"), 400).getHeader("Cache-Control")).isNull();
+		assertThat(handle(new MockHttpServletRequest("GET", "/api/recipes/0"), 404).getHeader("Cache-Control")).isNull();
+		assertThat(handle(new MockHttpServletRequest("GET", "/api/recipes/stats"), 500).getHeader("Cache-Control")).isNull();
+	}
+
+	@Test
+	void bodiesOfOtherMethodsAreNotCacheable() throws Exception {
+		assertThat(handle(new MockHttpServletRequest("POST", "/api/recipes/batch"), 200).getHeader("Cache-Control")).isNull();
+	}
+
+	@Test
+	void answersAMatchingIfNoneMatchWithNotModified() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/42");
+		request.addHeader("If-None-Match", "W/\"v7-r1\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(request, response, null)).isFalse();
+		assertThat(response.getStatus()).isEqualTo(304);
+		assertThat(response.getHeader("Cache-Control")).isEqualTo("max-age=60, public");
+	}
+
+	@Test
+	void representationsGetTheirOwnTags() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes");
+		request.addHeader("Accept", "application/cbor");
+		request.addHeader("If-None-Match", "W/\"v7-r1\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(request, response, null)).isTrue();
+		assertThat(response.getHeader("ETag")).isEqualTo("W/\"v7-r1-cbor\"");
+	}
+
+	@Test
+	void aNewBuildInvalidatesTagsAndDatesOfTheOldOne() {
+		Properties info = new Properties();
+		info.setProperty("version", "1.2.0");
+		info.setProperty("time", "2026-03-04T05:06:07Z");
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		beans.addBean("buildProperties", new BuildProperties(info));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/42");
+		request.addHeader("If-None-Match", "W/\"v7-r1\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor(beans).preHandle(request, response, null)).isTrue();
+		assertThat(response.getHeader("ETag")).isEqualTo("W/\"v7-r1-1.2.0\"");
+		assertThat(response.getHeader("Last-Modified")).isEqualTo("Wed, 04 Mar 2026 05:06:07 GMT");
+	}
+
+	@Test
+	void leavesOtherMethodsAlone() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/recipes"), response, null)).isTrue();
+		assertThat(response.getHeader("ETag")).isNull();
+	}
+}
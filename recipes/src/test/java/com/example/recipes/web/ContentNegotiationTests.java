@@ -0,0 +1,87 @@
+package com.example.recipes.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.recipes.config.MetricsConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/** The converters of {@link MetricsConfig}, combined with the defaults as Boot combines them. */
+class ContentNegotiationTests {
+
+	@RestController
+	static class RecipeEndpoint {
+		@GetMapping("/api/recipes/{id}")
+		Map<String, Object> get(@PathVariable("id") long id) {
+			return Map.of("id", id, "title", "Pecan Pie");
+		}
+	}
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final MockMvc mvc;
+
+	ContentNegotiationTests() {
+		MetricsConfig config = new MetricsConfig();
+		HttpMessageConverters converters = new HttpMessageConverters(
+				config.mappingJackson2HttpMessageConverter(new ObjectMapper(), registry),
+				config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json(), registry));
+		mvc = MockMvcBuilders.standaloneSetup(new RecipeEndpoint())
+				.setMessageConverters(converters.getConverters().toArray(HttpMessageConverter[]::new))
+				.build();
+	}
+
+	private long encoded(String format) {
+		return registry.find("recipes.response.serialize").tag("format", format).timers().stream()
+				.mapToLong(timer -> timer.count()).sum();
+	}
+
+	@Test
+	void answersJsonWithoutAnAcceptHeader() throws Exception {
+		mvc.perform(get("/api/recipes/7"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.title").value("Pecan Pie"));
+
+		assertThat(encoded("json")).isEqualTo(1);
+		assertThat(encoded("cbor")).isZero();
+	}
+
+	@Test
+	void answersJsonToAWildcardAccept() throws Exception {
+		mvc.perform(get("/api/recipes/7").accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void answersCborWhenAskedFor() throws Exception {
+		byte[] body = mvc.perform(get("/api/recipes/7").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		Map<?, ?> decoded = new CBORMapper().readValue(body, Map.class);
+		assertThat(decoded.get("id")).isEqualTo(7);
+		assertThat(decoded.get("title")).isEqualTo("Pecan Pie");
+		assertThat(encoded("cbor")).isEqualTo(1);
+	}
+}